@@ -5,8 +5,12 @@ import org.victorrobotics.dtlib.command.CommandScheduler;
 import org.victorrobotics.dtlib.log.DTLog;
 import org.victorrobotics.dtlib.log.RootLogNode;
 import org.victorrobotics.dtlib.log.LogWriter;
+import org.victorrobotics.dtlib.log.FlightRecorderEvents;
 import org.victorrobotics.dtlib.log.Watchdog;
+import org.victorrobotics.dtlib.log.reader.LogReader;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -18,8 +22,6 @@ import edu.wpi.first.hal.NotifierJNI;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.NetworkTableInstance.NetworkMode;
 import edu.wpi.first.wpilibj.Compressor;
-import edu.wpi.first.wpilibj.DSControlWord;
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.RuntimeType;
@@ -62,22 +64,69 @@ public abstract class DTRobot {
     }
   }
 
+  /**
+   * What the robot does when a cycle runs past the start of the next one.
+   */
+  public enum OverrunPolicy {
+    /**
+     * Keep to the original schedule, running late cycles immediately, one after
+     * another, until the robot is back on time.
+     */
+    CATCH_UP,
+    /**
+     * Skip the time slots that have already passed, and wait for the next one.
+     * This is the default.
+     */
+    SKIP
+  }
+
+  /**
+   * Timing of the robot's main loop, logged every cycle.
+   */
+  private static final class LoopTiming {
+    /** How late the loop woke up for this cycle */
+    @DTLog
+    private int wakeLatencyMicros;
+
+    /** Time since the previous cycle woke up */
+    @DTLog
+    private int periodMicros;
+
+    /** How long the previous cycle took to run */
+    @DTLog
+    private int cycleTimeMicros;
+
+    /** Total number of time slots started late or skipped */
+    @DTLog
+    private long missedDeadlines;
+  }
+
   public static final double PERIOD_SECONDS = 0.02;
   public static final long   PERIOD_MICROS  = (long) (PERIOD_SECONDS * 1e6);
 
-  private static final DSControlWord CONTROL_WORD  = new DSControlWord();
-  private static final boolean       IS_SIMULATION =
+  private static final DriverStationInputs INPUTS        = new DriverStationInputs();
+  private static final boolean             IS_SIMULATION =
       RuntimeType.getValue(HALUtil.getHALRuntimeType()) == RuntimeType.kSimulation;
-  private static final AtomicBoolean RUN           = new AtomicBoolean();
+  private static final AtomicBoolean       RUN           = new AtomicBoolean();
+
+  private static final int AUTO_COMMAND_EPOCH = Watchdog.registerEpoch("getAutoCommand()");
+  private static final int LOG_EPOCH          = Watchdog.registerEpoch("log()");
+  private static final int REFRESH_DS_EPOCH   = Watchdog.registerEpoch("refreshDriverStation()");
 
   private static Mode currentMode  = Mode.DISABLED;
   private static Mode previousMode = Mode.DISABLED;
 
   private static AllianceStation alliance;
+  private static OverrunPolicy   overrunPolicy = OverrunPolicy.SKIP;
+  private static InputSource     inputSource   = new HALInputSource();
 
-  private final DTLog.Level   logLevel;
   private final RootLogNode logTreeRoot;
 
+  @DTLog(name = "loopTiming")
+  private final LoopTiming loopTiming = new LoopTiming();
+
+  @DTLog(name = "driverStation", level = DTLog.Level.ERROR)
+  private final DriverStationInputs driverStation = INPUTS;
 
   private Compressor compressor;
 
@@ -88,7 +137,6 @@ public abstract class DTRobot {
   }
 
   protected DTRobot(DTLog.Level logLevel) {
-    this.logLevel = logLevel;
     logTreeRoot = new RootLogNode(this, logLevel);
   }
 
@@ -138,10 +186,14 @@ public abstract class DTRobot {
   private void runModeChange() {
     if (currentMode == previousMode) return;
 
+    if (Watchdog.isResetStatsPerMode()) {
+      Watchdog.resetStats();
+    }
+
     if (currentMode == Mode.AUTO) {
       Watchdog.startEpoch();
       autoCommand = getAutoCommand();
-      Watchdog.addEpoch("getAutoCommand()");
+      Watchdog.addEpoch(AUTO_COMMAND_EPOCH);
       CommandScheduler.schedule(autoCommand);
     } else if (previousMode == Mode.AUTO) {
       CommandScheduler.cancel(autoCommand);
@@ -162,12 +214,57 @@ public abstract class DTRobot {
                .logNewTimestamp();
     if (currentMode != previousMode) {
       LogWriter.getInstance()
-                 .writeShort(currentMode.identifier);
+                 .writeIdentifier(currentMode.identifier);
     }
     robot.logTreeRoot.log();
+    Watchdog.publishStats();
     LogWriter.getInstance()
               .tryFlush();
-    Watchdog.addEpoch("log()");
+    Watchdog.addEpoch(LOG_EPOCH);
+  }
+
+  /**
+   * Sets what the robot does when a cycle runs past the start of the next one.
+   * Must be called before the robot is started.
+   *
+   * @param policy the overrun policy, {@link OverrunPolicy#SKIP} by default
+   */
+  public static void configOverrunPolicy(OverrunPolicy policy) {
+    overrunPolicy = policy;
+  }
+
+  /**
+   * Sets the robot's log level while it runs, for both variables and messages.
+   * Levels can also be changed from DTDash.
+   *
+   * @param level the least verbose level to log
+   */
+  protected final void setLogLevel(DTLog.Level level) {
+    logTreeRoot.setLevel(level);
+  }
+
+  /**
+   * Sets the log level of a variable and everything inside it while the robot
+   * runs, such as {@code "/Robot/driveTrain"}.
+   *
+   * @param path the path of the variable
+   * @param level the least verbose level to log inside it, or null to use the
+   *        levels of its annotations again
+   */
+  protected final void setLogLevel(String path, DTLog.Level level) {
+    logTreeRoot.setLevel(path, level);
+  }
+
+  /**
+   * Publishes every variable inside a path of the log tree to DTDash while the
+   * robot runs, such as {@code "/Robot/driveTrain"}, within a fixed budget
+   * per cycle.
+   *
+   * @param path the path to publish
+   * @see org.victorrobotics.dtlib.log.LogTelemetry
+   */
+  protected final void publishTelemetry(String path) {
+    logTreeRoot.publish(path);
   }
 
   protected final void configCompressor(int module, PneumaticsModuleType type) {
@@ -178,6 +275,33 @@ public abstract class DTRobot {
   }
 
   public static void runRobot(Supplier<DTRobot> robotConstructor) {
+    run(robotConstructor);
+  }
+
+  /**
+   * Runs the robot again from one of its logs, as fast as possible. Time and
+   * the driver station inputs of each cycle, including controllers, are read
+   * from the log instead of the HAL. Everything else, such as sensors, is read
+   * from the HAL as usual, so this is typically run in simulation. The robot
+   * stops after the last cycle in the log.
+   * <p>
+   * A new log is written to the same directory as the one being replayed, so
+   * the two can be compared.
+   *
+   * @param robotConstructor creates the robot
+   * @param log the first segment of the log to replay
+   * @throws IOException if the log can't be read
+   */
+  public static void replayRobot(Supplier<DTRobot> robotConstructor, Path log)
+      throws IOException {
+    inputSource = new ReplayInputSource(LogReader.open(log));
+    LogWriter.configDirectory(log.toAbsolutePath()
+                                 .getParent()
+                                 .toFile());
+    run(robotConstructor);
+  }
+
+  private static void run(Supplier<DTRobot> robotConstructor) {
     if (!HAL.initialize(500, 0)) {
       throw new IllegalStateException("Failed to initialize HAL");
     }
@@ -201,7 +325,7 @@ public abstract class DTRobot {
       return;
     }
 
-    LogWriter.init(robot.logLevel);
+    LogWriter.init(robot.logTreeRoot.getLevel());
     LogWriter.info(robot + " initializing...");
 
     waitForNTServer();
@@ -219,32 +343,59 @@ public abstract class DTRobot {
     DriverStationJNI.observeUserProgramStarting();
     LogWriter.info(robot + " ready");
 
+    int periodicEpoch = Watchdog.registerEpoch(robot + ".periodic()");
     int notifierHandle = NotifierJNI.initializeNotifier();
     NotifierJNI.setNotifierName(notifierHandle, "DTRobot");
-    long triggerTime = 0;
+    LoopTiming timing = robot.loopTiming;
+    long triggerTime = currentTimeMicros();
+    long wakeTime = triggerTime;
+    boolean realTime = inputSource.isRealTime();
     RUN.set(true);
 
     while (RUN.get()) {
-      // Wait to be woken up
-      triggerTime += PERIOD_MICROS;
-      NotifierJNI.updateNotifierAlarm(notifierHandle, triggerTime);
-      long time = NotifierJNI.waitForNotifierAlarm(notifierHandle);
-      if (time == 0) {
-        // Notifier has been stopped, exit
-        RUN.set(false);
-        break;
+      if (realTime) {
+        timing.cycleTimeMicros = (int) (currentTimeMicros() - wakeTime);
+
+        // Wait to be woken up
+        triggerTime += PERIOD_MICROS;
+        long lateMicros = currentTimeMicros() - triggerTime;
+        if (lateMicros > 0) {
+          if (overrunPolicy == OverrunPolicy.SKIP) {
+            long skipped = lateMicros / PERIOD_MICROS + 1;
+            triggerTime += skipped * PERIOD_MICROS;
+            timing.missedDeadlines += skipped;
+          } else {
+            timing.missedDeadlines++;
+          }
+        }
+        NotifierJNI.updateNotifierAlarm(notifierHandle, triggerTime);
+        long time = NotifierJNI.waitForNotifierAlarm(notifierHandle);
+        if (time == 0) {
+          // Notifier has been stopped, exit
+          RUN.set(false);
+          break;
+        }
+        timing.wakeLatencyMicros = (int) (time - triggerTime);
+        timing.periodMicros = (int) (time - wakeTime);
+        wakeTime = time;
       }
 
       Watchdog.reset();
-      refreshDriverStation();
+      if (!refreshDriverStation()) {
+        // Replayed log has ended
+        RUN.set(false);
+        break;
+      }
       robot.runModeChange();
 
       // Execute code for this cycle
       Watchdog.startEpoch();
       robot.periodic();
-      Watchdog.addEpoch(robot + ".periodic()");
+      Watchdog.addEpoch(periodicEpoch);
 
+      Object schedulerEvent = FlightRecorderEvents.beginPhase();
       CommandScheduler.run();
+      FlightRecorderEvents.endPhase(schedulerEvent, "CommandScheduler.run()");
       log(robot);
 
       if (Watchdog.isExpired()) {
@@ -252,6 +403,12 @@ public abstract class DTRobot {
       }
     }
 
+    try {
+      LogWriter.getInstance()
+               .close();
+    } catch (IOException e) {
+      // Data already written is kept
+    }
     HAL.shutdown();
   }
 
@@ -279,36 +436,46 @@ public abstract class DTRobot {
     }
   }
 
-  private static void refreshDriverStation() {
+  /**
+   * @return false if there are no more inputs to replay
+   */
+  private static boolean refreshDriverStation() {
     Watchdog.startEpoch();
-    DriverStation.refreshData();
-    CONTROL_WORD.refresh();
-    alliance = AllianceStation.fromDS(DriverStationJNI.getAllianceStation());
+    boolean available = inputSource.refresh(INPUTS);
+    alliance = INPUTS.alliance >= 0 ? AllianceStation.values()[INPUTS.alliance] : null;
 
     previousMode = currentMode;
-    if (CONTROL_WORD.isEStopped()) {
+    if (INPUTS.eStopped) {
       currentMode = Mode.E_STOP;
       DriverStationJNI.observeUserProgramDisabled();
-    } else if (!CONTROL_WORD.isEnabled()) {
+    } else if (!INPUTS.enabled) {
       currentMode = Mode.DISABLED;
       DriverStationJNI.observeUserProgramDisabled();
-    } else if (CONTROL_WORD.isAutonomous()) {
+    } else if (INPUTS.autonomous) {
       currentMode = Mode.AUTO;
       DriverStationJNI.observeUserProgramAutonomous();
-    } else if (CONTROL_WORD.isTest()) {
+    } else if (INPUTS.test) {
       currentMode = Mode.TEST;
       DriverStationJNI.observeUserProgramTest();
     } else {
       currentMode = Mode.TELEOP;
       DriverStationJNI.observeUserProgramTeleop();
     }
-    Watchdog.addEpoch("refreshDriverStation()");
+    Watchdog.addEpoch(REFRESH_DS_EPOCH);
+    return available;
   }
 
   public static Mode getCurrentMode() {
     return currentMode;
   }
 
+  /**
+   * @return the driver station inputs of the current cycle
+   */
+  public static DriverStationInputs getInputs() {
+    return INPUTS;
+  }
+
   public static AllianceStation getAlliance() {
     return alliance;
   }
@@ -326,11 +493,23 @@ public abstract class DTRobot {
   }
 
   public static boolean isDSConnected() {
-    return CONTROL_WORD.isDSAttached();
+    return INPUTS.dsAttached;
   }
 
+  /**
+   * @return the robot's time, which only changes between cycles when
+   *           replaying a log
+   */
   public static long currentTimeMicros() {
-    return RobotController.getFPGATime();
+    return inputSource.currentTimeMicros();
+  }
+
+  /**
+   * @return the time at the start of the current cycle, which is the same
+   *           when the robot is replayed from its log
+   */
+  public static long cycleStartMicros() {
+    return INPUTS.timeMicros;
   }
 
   public static double currentTime() {
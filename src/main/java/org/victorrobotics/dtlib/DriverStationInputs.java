@@ -0,0 +1,122 @@
+package org.victorrobotics.dtlib;
+
+import org.victorrobotics.dtlib.log.DTLog;
+
+/**
+ * The inputs from the driver station, read at the start of every cycle. They
+ * are logged under {@code driverStation} in the robot's log, so that the robot
+ * can be {@link DTRobot#replayRobot(java.util.function.Supplier, java.nio.file.Path)
+ * replayed} from it later. They are logged at the {@code ERROR} level, so they
+ * are recorded whatever level the robot runs at.
+ */
+public final class DriverStationInputs {
+  /** The state of the joystick on one port */
+  static final class Joystick {
+    @DTLog(level = DTLog.Level.ERROR)
+    boolean connected;
+
+    @DTLog(level = DTLog.Level.ERROR)
+    int buttons;
+
+    @DTLog(level = DTLog.Level.ERROR)
+    double[] axes = new double[0];
+
+    @DTLog(level = DTLog.Level.ERROR)
+    int[] povs = new int[0];
+
+    void disconnect() {
+      connected = false;
+      buttons = 0;
+      if (axes.length > 0) {
+        axes = new double[0];
+      }
+      if (povs.length > 0) {
+        povs = new int[0];
+      }
+    }
+  }
+
+  /** The robot's time at the start of the cycle */
+  @DTLog(level = DTLog.Level.ERROR)
+  long timeMicros;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  boolean enabled;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  boolean autonomous;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  boolean test;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  boolean eStopped;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  boolean dsAttached;
+
+  /** The {@link DTRobot.AllianceStation} ordinal, or -1 if unknown */
+  @DTLog(level = DTLog.Level.ERROR)
+  int alliance = -1;
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick0 = new Joystick();
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick1 = new Joystick();
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick2 = new Joystick();
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick3 = new Joystick();
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick4 = new Joystick();
+
+  @DTLog(level = DTLog.Level.ERROR)
+  private final Joystick joystick5 = new Joystick();
+
+  private final Joystick[] joysticks =
+      { joystick0, joystick1, joystick2, joystick3, joystick4, joystick5 };
+
+  DriverStationInputs() {}
+
+  Joystick getJoystick(int port) {
+    return joysticks[port];
+  }
+
+  public boolean isJoystickConnected(int port) {
+    return joysticks[port].connected;
+  }
+
+  /**
+   * @param port the joystick port
+   * @return the state of every button, one bit each, with button 1 in the
+   *           lowest bit
+   */
+  public int getStickButtons(int port) {
+    return joysticks[port].buttons;
+  }
+
+  /**
+   * @param port the joystick port
+   * @param axis the axis index
+   * @return the value of the axis, or 0 if the joystick doesn't have it
+   */
+  public double getStickAxis(int port, int axis) {
+    double[] axes = joysticks[port].axes;
+    return axis < axes.length ? axes[axis] : 0;
+  }
+
+  /**
+   * @param port the joystick port
+   * @param pov the POV index
+   * @return the angle of the POV in degrees, or -1 if it isn't pressed or the
+   *           joystick doesn't have it
+   */
+  public int getStickPOV(int port, int pov) {
+    int[] povs = joysticks[port].povs;
+    return pov < povs.length ? povs[pov] : -1;
+  }
+}
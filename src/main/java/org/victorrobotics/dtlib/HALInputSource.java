@@ -0,0 +1,66 @@
+package org.victorrobotics.dtlib;
+
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.wpilibj.DSControlWord;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Reads inputs from the driver station through the HAL, as the robot runs.
+ */
+final class HALInputSource implements InputSource {
+  private final DSControlWord controlWord = new DSControlWord();
+
+  @Override
+  public boolean refresh(DriverStationInputs inputs) {
+    DriverStation.refreshData();
+    controlWord.refresh();
+
+    inputs.timeMicros = RobotController.getFPGATime();
+    inputs.enabled = controlWord.isEnabled();
+    inputs.autonomous = controlWord.isAutonomous();
+    inputs.test = controlWord.isTest();
+    inputs.eStopped = controlWord.isEStopped();
+    inputs.dsAttached = controlWord.isDSAttached();
+    inputs.alliance = DTRobot.AllianceStation.fromDS(DriverStationJNI.getAllianceStation())
+                                             .ordinal();
+
+    for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+      DriverStationInputs.Joystick joystick = inputs.getJoystick(port);
+      if (!DriverStation.isJoystickConnected(port)) {
+        joystick.disconnect();
+        continue;
+      }
+
+      joystick.connected = true;
+      joystick.buttons = DriverStation.getStickButtons(port);
+
+      int axisCount = DriverStation.getStickAxisCount(port);
+      if (joystick.axes.length != axisCount) {
+        joystick.axes = new double[axisCount];
+      }
+      for (int i = 0; i < axisCount; i++) {
+        joystick.axes[i] = DriverStation.getStickAxis(port, i);
+      }
+
+      int povCount = DriverStation.getStickPOVCount(port);
+      if (joystick.povs.length != povCount) {
+        joystick.povs = new int[povCount];
+      }
+      for (int i = 0; i < povCount; i++) {
+        joystick.povs[i] = DriverStation.getStickPOV(port, i);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long currentTimeMicros() {
+    return RobotController.getFPGATime();
+  }
+
+  @Override
+  public boolean isRealTime() {
+    return true;
+  }
+}
@@ -0,0 +1,23 @@
+package org.victorrobotics.dtlib;
+
+/**
+ * Where the robot's time and driver station inputs come from, either the HAL
+ * or a log being replayed.
+ */
+interface InputSource {
+  /**
+   * Reads the inputs for a new cycle.
+   *
+   * @param inputs the inputs to update
+   * @return false if there are no more inputs, and the robot should stop
+   */
+  boolean refresh(DriverStationInputs inputs);
+
+  long currentTimeMicros();
+
+  /**
+   * @return whether each cycle waits for its time slot, rather than running
+   *           as soon as the last one finishes
+   */
+  boolean isRealTime();
+}
@@ -0,0 +1,197 @@
+package org.victorrobotics.dtlib;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.LogVariableInfo;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Reads the driver station inputs of each cycle from a robot's log, in a
+ * single pass. Every cycle logs a new time, followed by the other inputs that
+ * changed, so a cycle's inputs run from its time up to the next one. Time only
+ * advances from one cycle to the next, so the replayed robot sees the same
+ * time throughout each cycle.
+ */
+final class ReplayInputSource implements InputSource {
+  private static final String INPUTS_PATH = "/driverStation/";
+
+  private static final int UNKNOWN     = -2;
+  private static final int NOT_INPUT   = -1;
+  private static final int TIME_MICROS = 0;
+  private static final int ENABLED     = 1;
+  private static final int AUTONOMOUS  = 2;
+  private static final int TEST        = 3;
+  private static final int E_STOPPED   = 4;
+  private static final int DS_ATTACHED = 5;
+  private static final int ALLIANCE    = 6;
+  private static final int JOYSTICKS   = 8;
+
+  private static final int JOYSTICK_CONNECTED = 0;
+  private static final int JOYSTICK_BUTTONS   = 1;
+  private static final int JOYSTICK_AXES      = 2;
+  private static final int JOYSTICK_POVS      = 3;
+
+  private static final String[] JOYSTICK_FIELDS = { "connected", "buttons", "axes", "povs" };
+
+  private final LogCursor cursor;
+
+  private int[]   fields;
+  private int     refreshCount;
+  private long    currentTime;
+  private long    nextTime;
+  private boolean hasNextTime;
+
+  /**
+   * @param reader the log to replay
+   * @throws IOException if the log has no driver station inputs to replay
+   */
+  ReplayInputSource(LogReader reader) throws IOException {
+    cursor = reader.cursor();
+    fields = new int[64];
+    Arrays.fill(fields, UNKNOWN);
+
+    // Start at the first cycle's time, for anything before it
+    hasNextTime = readUntilTime(null);
+    if (!hasNextTime) {
+      throw new IOException("log has no driver station inputs to replay");
+    }
+    currentTime = nextTime;
+  }
+
+  @Override
+  public boolean refresh(DriverStationInputs inputs) {
+    // Inputs read before the first cycle weren't logged, use the first cycle's
+    if (refreshCount++ == 1) return true;
+    if (!hasNextTime) return false;
+
+    currentTime = nextTime;
+    inputs.timeMicros = nextTime;
+    hasNextTime = readUntilTime(inputs);
+    return true;
+  }
+
+  /**
+   * Applies inputs until the time of the next cycle.
+   *
+   * @param inputs the inputs to update, or null to skip them
+   * @return whether there is another cycle
+   */
+  private boolean readUntilTime(DriverStationInputs inputs) {
+    while (cursor.next()) {
+      if (cursor.getRecordType() != RecordType.VALUE) continue;
+
+      int field = getField(cursor.getVariable());
+      if (field == TIME_MICROS) {
+        nextTime = cursor.getLong();
+        return true;
+      }
+      if (field != NOT_INPUT && inputs != null) {
+        apply(field, inputs);
+      }
+    }
+    return false;
+  }
+
+  private void apply(int field, DriverStationInputs inputs) {
+    switch (field) {
+      case ENABLED -> inputs.enabled = cursor.getBoolean();
+      case AUTONOMOUS -> inputs.autonomous = cursor.getBoolean();
+      case TEST -> inputs.test = cursor.getBoolean();
+      case E_STOPPED -> inputs.eStopped = cursor.getBoolean();
+      case DS_ATTACHED -> inputs.dsAttached = cursor.getBoolean();
+      case ALLIANCE -> inputs.alliance = (int) cursor.getLong();
+      default -> applyJoystick(inputs.getJoystick((field - JOYSTICKS) / JOYSTICK_FIELDS.length),
+                               (field - JOYSTICKS) % JOYSTICK_FIELDS.length);
+    }
+  }
+
+  private void applyJoystick(DriverStationInputs.Joystick joystick, int field) {
+    switch (field) {
+      case JOYSTICK_CONNECTED -> joystick.connected = cursor.getBoolean();
+      case JOYSTICK_BUTTONS -> joystick.buttons = (int) cursor.getLong();
+      case JOYSTICK_AXES -> {
+        int length = cursor.getArrayLength();
+        if (joystick.axes.length != length) {
+          joystick.axes = new double[length];
+        }
+        cursor.getDoubles(joystick.axes);
+      }
+      case JOYSTICK_POVS -> {
+        int length = cursor.getArrayLength();
+        if (joystick.povs.length != length) {
+          joystick.povs = new int[length];
+        }
+        for (int i = 0; i < length; i++) {
+          joystick.povs[i] = (int) cursor.getLong(i);
+        }
+      }
+    }
+  }
+
+  private int getField(LogVariableInfo variable) {
+    int index = variable.getIndex();
+    if (index >= fields.length) {
+      int oldLength = fields.length;
+      fields = Arrays.copyOf(fields, Math.max(index + 1, oldLength * 2));
+      Arrays.fill(fields, oldLength, fields.length, UNKNOWN);
+    }
+    if (fields[index] == UNKNOWN) {
+      fields[index] = findField(variable.getPath());
+    }
+    return fields[index];
+  }
+
+  /**
+   * @param path a variable path, such as {@code /Robot/driverStation/enabled}
+   * @return the input it holds, or {@link #NOT_INPUT}
+   */
+  private static int findField(String path) {
+    int start = path.indexOf('/', 1);
+    if (start == -1 || !path.startsWith(INPUTS_PATH, start)) return NOT_INPUT;
+
+    String name = path.substring(start + INPUTS_PATH.length());
+    switch (name) {
+      case "timeMicros":
+        return TIME_MICROS;
+      case "enabled":
+        return ENABLED;
+      case "autonomous":
+        return AUTONOMOUS;
+      case "test":
+        return TEST;
+      case "eStopped":
+        return E_STOPPED;
+      case "dsAttached":
+        return DS_ATTACHED;
+      case "alliance":
+        return ALLIANCE;
+      default:
+        break;
+    }
+
+    // joystickN/field
+    if (name.length() < 10 || !name.startsWith("joystick") || name.charAt(9) != '/') {
+      return NOT_INPUT;
+    }
+    int port = name.charAt(8) - '0';
+    int field = Arrays.asList(JOYSTICK_FIELDS)
+                      .indexOf(name.substring(10));
+    if (port < 0 || port >= DriverStation.kJoystickPorts || field == -1) return NOT_INPUT;
+    return JOYSTICKS + JOYSTICK_FIELDS.length * port + field;
+  }
+
+  @Override
+  public long currentTimeMicros() {
+    return currentTime;
+  }
+
+  @Override
+  public boolean isRealTime() {
+    return false;
+  }
+}
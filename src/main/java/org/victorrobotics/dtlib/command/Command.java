@@ -19,6 +19,9 @@ public abstract class Command {
   private final Set<Subsystem> requirements;
   private final Set<Subsystem> unmodifiableReqs;
 
+  /** Whether the scheduler has registered this command with the Watchdog */
+  boolean watchdogRegistered;
+
   /**
    * Constructs a new CommandBase
    */
@@ -6,6 +6,7 @@ import org.victorrobotics.dtlib.log.LogWriter;
 import org.victorrobotics.dtlib.log.Watchdog;
 import org.victorrobotics.dtlib.subsystem.Subsystem;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -33,9 +34,23 @@ public final class CommandScheduler {
   private static final Set<Command> COMMANDS_TO_CANCEL   = new LinkedHashSet<>();
 
   private static final Map<Subsystem, Command> REQUIRING_COMMANDS = new LinkedHashMap<>();
+  private static final List<Subsystem>         NEW_SUBSYSTEMS     = new ArrayList<>();
 
   private static final List<Runnable> CALLBACKS = new LinkedList<>();
 
+  private static final int PERIODIC_EPOCH            =
+      Watchdog.registerEpoch(Subsystem::getName, ".periodic()");
+  private static final int SIMULATION_PERIODIC_EPOCH =
+      Watchdog.registerEpoch(Subsystem::getName, ".simulationPeriodic()");
+  private static final int INITIALIZE_EPOCH          =
+      Watchdog.registerEpoch(Command::getName, ".initialize()");
+  private static final int EXECUTE_EPOCH             =
+      Watchdog.registerEpoch(Command::getName, ".execute()");
+  private static final int END_EPOCH                 =
+      Watchdog.registerEpoch(Command::getName, ".end()");
+  private static final int INTERRUPT_EPOCH           =
+      Watchdog.registerEpoch(Command::getName, ".interrupt()");
+
   private static boolean schedulerDisabled;
   private static boolean isRunning;
 
@@ -59,11 +74,20 @@ public final class CommandScheduler {
 
     CALLBACKS.forEach(Runnable::run);
 
+    if (!NEW_SUBSYSTEMS.isEmpty()) {
+      // Not in the constructor, where subclasses haven't set their names yet
+      for (Subsystem subsystem : NEW_SUBSYSTEMS) {
+        Watchdog.registerSubject(PERIODIC_EPOCH, subsystem);
+        Watchdog.registerSubject(SIMULATION_PERIODIC_EPOCH, subsystem);
+      }
+      NEW_SUBSYSTEMS.clear();
+    }
+
     for (Subsystem subsystem : REQUIRING_COMMANDS.keySet()) {
       try {
         Watchdog.startEpoch();
         subsystem.periodic();
-        Watchdog.addEpoch(subsystem.getName() + ".periodic()");
+        Watchdog.addEpoch(PERIODIC_EPOCH, subsystem);
       } catch (RuntimeException e) {
         LogWriter.logException(e, DTLog.Level.WARN);
       }
@@ -72,7 +96,7 @@ public final class CommandScheduler {
         try {
           Watchdog.startEpoch();
           subsystem.simulationPeriodic();
-          Watchdog.addEpoch(subsystem.getName() + ".simulationPeriodic()");
+          Watchdog.addEpoch(SIMULATION_PERIODIC_EPOCH, subsystem);
         } catch (RuntimeException e) {
           LogWriter.logException(e, DTLog.Level.WARN);
         }
@@ -87,7 +111,7 @@ public final class CommandScheduler {
         try {
           Watchdog.startEpoch();
           command.interrupt();
-          Watchdog.addEpoch(command.getName() + ".interrupt()");
+          Watchdog.addEpoch(INTERRUPT_EPOCH, command);
         } catch (RuntimeException e) {
           LogWriter.logException(e, DTLog.Level.WARN);
         }
@@ -102,7 +126,7 @@ public final class CommandScheduler {
       try {
         Watchdog.startEpoch();
         command.execute();
-        Watchdog.addEpoch(command.getName() + ".execute()");
+        Watchdog.addEpoch(EXECUTE_EPOCH, command);
       } catch (RuntimeException e) {
         LogWriter.logException(e, DTLog.Level.WARN);
         exception = true;
@@ -120,7 +144,7 @@ public final class CommandScheduler {
         try {
           Watchdog.startEpoch();
           command.interrupt();
-          Watchdog.addEpoch(command.getName() + ".interrupt()");
+          Watchdog.addEpoch(INTERRUPT_EPOCH, command);
         } catch (RuntimeException e) {
           LogWriter.logException(e, DTLog.Level.WARN);
         }
@@ -132,7 +156,7 @@ public final class CommandScheduler {
         try {
           Watchdog.startEpoch();
           command.end();
-          Watchdog.addEpoch(command.getName() + ".end()");
+          Watchdog.addEpoch(END_EPOCH, command);
         } catch (RuntimeException e) {
           LogWriter.logException(e, DTLog.Level.WARN);
         }
@@ -235,10 +259,18 @@ public final class CommandScheduler {
       REQUIRING_COMMANDS.put(entry.getKey(), command);
     }
 
+    if (!command.watchdogRegistered) {
+      command.watchdogRegistered = true;
+      Watchdog.registerSubject(INITIALIZE_EPOCH, command);
+      Watchdog.registerSubject(EXECUTE_EPOCH, command);
+      Watchdog.registerSubject(END_EPOCH, command);
+      Watchdog.registerSubject(INTERRUPT_EPOCH, command);
+    }
+
     try {
       Watchdog.startEpoch();
       command.initialize();
-      Watchdog.addEpoch(command.getName() + ".initialize()");
+      Watchdog.addEpoch(INITIALIZE_EPOCH, command);
     } catch (RuntimeException e) {
       LogWriter.logException(e, DTLog.Level.WARN);
       return false;
@@ -289,7 +321,7 @@ public final class CommandScheduler {
     try {
       Watchdog.startEpoch();
       command.interrupt();
-      Watchdog.addEpoch(command.getName() + ".interrupt()");
+      Watchdog.addEpoch(INTERRUPT_EPOCH, command);
     } catch (RuntimeException e) {
       LogWriter.logException(e, DTLog.Level.WARN);
     }
@@ -306,7 +338,7 @@ public final class CommandScheduler {
       try {
         Watchdog.startEpoch();
         command.interrupt();
-        Watchdog.addEpoch(command.getName() + ".interrupt()");
+        Watchdog.addEpoch(INTERRUPT_EPOCH, command);
       } catch (RuntimeException e) {
         LogWriter.logException(e, DTLog.Level.WARN);
       }
@@ -329,7 +361,10 @@ public final class CommandScheduler {
       return;
     }
 
-    REQUIRING_COMMANDS.putIfAbsent(subsystem, null);
+    if (!REQUIRING_COMMANDS.containsKey(subsystem)) {
+      REQUIRING_COMMANDS.put(subsystem, null);
+      NEW_SUBSYSTEMS.add(subsystem);
+    }
   }
 
   /**
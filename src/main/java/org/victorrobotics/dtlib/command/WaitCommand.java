@@ -24,12 +24,12 @@ public class WaitCommand extends Command {
 
   @Override
   public void initialize() {
-    endTime = DTRobot.currentTimeMicros() + duration;
+    endTime = DTRobot.cycleStartMicros() + duration;
   }
 
   @Override
   public boolean isFinished() {
-    return DTRobot.currentTimeMicros() >= endTime;
+    return DTRobot.cycleStartMicros() >= endTime;
   }
 
   @Override
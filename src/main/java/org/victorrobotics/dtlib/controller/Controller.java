@@ -1,5 +1,7 @@
 package org.victorrobotics.dtlib.controller;
 
+import org.victorrobotics.dtlib.DTRobot;
+import org.victorrobotics.dtlib.DriverStationInputs;
 import org.victorrobotics.dtlib.command.CommandScheduler;
 import org.victorrobotics.dtlib.log.LogWriter;
 
@@ -81,23 +83,28 @@ public class Controller {
       return;
     }
 
-    buttons = DriverStation.getStickButtons(port);
+    DriverStationInputs inputs = DTRobot.getInputs();
+    buttons = inputs.getStickButtons(port);
 
     if (axes != null) {
       for (int i = 0; i < axes.length; i++) {
-        axes[i] = DriverStation.getStickAxis(port, i);
+        axes[i] = inputs.getStickAxis(port, i);
       }
     }
 
     if (povs != null) {
       for (int i = 0; i < povs.length; i++) {
-        povs[i] = DriverStation.getStickPOV(port, i);
+        povs[i] = inputs.getStickPOV(port, i);
       }
     }
   }
 
+  /**
+   * @return whether the controller was connected at the start of the cycle
+   */
   public final boolean isConnected() {
-    return DriverStation.isJoystickConnected(port);
+    return DTRobot.getInputs()
+                  .isJoystickConnected(port);
   }
 
   public final void setRumble(double leftPower, double rightPower) {
@@ -0,0 +1,108 @@
+package org.victorrobotics.dtlib.log;
+
+import static com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures memory allocated by the current thread, and collects garbage
+ * collection pauses as the JVM reports them. Both rely on HotSpot-specific
+ * management interfaces, and are disabled if those are unavailable.
+ */
+final class AllocationMonitor {
+  private static final ThreadMXBean THREAD_BEAN = getThreadBean();
+
+  private static final AtomicLong GC_COUNT        = new AtomicLong();
+  private static final AtomicLong GC_PAUSE_MILLIS = new AtomicLong();
+  private static final AtomicLong GC_MAX_PAUSE    = new AtomicLong();
+
+  static {
+    listenForCollections();
+  }
+
+  private AllocationMonitor() {}
+
+  /**
+   * @return whether allocations can be measured
+   */
+  static boolean isSupported() {
+    return THREAD_BEAN != null;
+  }
+
+  /**
+   * @return the total number of bytes allocated by the current thread, or 0 if
+   *           unsupported
+   */
+  static long getAllocatedBytes() {
+    return THREAD_BEAN == null ? 0 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * @return the number of garbage collections since the robot started
+   */
+  static long getCollectionCount() {
+    return GC_COUNT.get();
+  }
+
+  /**
+   * @return the total duration of garbage collections, in milliseconds
+   */
+  static long getCollectionMillis() {
+    return GC_PAUSE_MILLIS.get();
+  }
+
+  /**
+   * @return the longest garbage collection since the last call, in
+   *           milliseconds
+   */
+  static long takeMaxCollectionMillis() {
+    return GC_MAX_PAUSE.getAndSet(0);
+  }
+
+  private static ThreadMXBean getThreadBean() {
+    try {
+      if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+          && bean.isThreadAllocatedMemorySupported()) {
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+      }
+    } catch (LinkageError | UnsupportedOperationException e) {
+      // Management module not included in the runtime
+    }
+    return null;
+  }
+
+  private static void listenForCollections() {
+    try {
+      NotificationFilter filter =
+          notification -> GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType());
+      NotificationListener listener = (notification, handback) -> {
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long duration = info.getGcInfo()
+                            .getDuration();
+        GC_COUNT.incrementAndGet();
+        GC_PAUSE_MILLIS.addAndGet(duration);
+        GC_MAX_PAUSE.accumulateAndGet(duration, Math::max);
+      };
+
+      for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (bean instanceof NotificationEmitter emitter) {
+          emitter.addNotificationListener(listener, filter, null);
+        }
+      }
+    } catch (LinkageError e) {
+      // Management module not included in the runtime
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package org.victorrobotics.dtlib.log;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * A copy of the last primitive array logged by a variable, so that arrays are
+ * compared by their contents. This catches getters that modify and return the
+ * same array, while ignoring getters that return new but identical arrays. The
+ * copy is reused, and only reallocated when the array grows.
+ */
+final class ArraySnapshot {
+  private Object copy;
+  private int    capacity;
+  private int    length = -1;
+
+  /**
+   * @return whether the type is one of the built-in 1D primitive array types
+   */
+  static boolean isSupported(LogType type) {
+    return type.id >= 0x28 && type.id <= 0x2F;
+  }
+
+  /**
+   * @return whether the array (or null) matches the snapshot
+   */
+  boolean matches(Object array) {
+    if (array == null || length < 0) return array == null && length < 0;
+    return mismatch(array) < 0;
+  }
+
+  void update(Object array) {
+    if (array == null) {
+      length = -1;
+      return;
+    }
+
+    int newLength = Array.getLength(array);
+    if (copy == null || newLength > capacity) {
+      copy = Array.newInstance(array.getClass()
+                                    .getComponentType(),
+                               newLength);
+      capacity = newLength;
+    }
+    System.arraycopy(array, 0, copy, 0, newLength);
+    length = newLength;
+  }
+
+  private int mismatch(Object array) {
+    if (array instanceof double[] a) {
+      return Arrays.mismatch(a, 0, a.length, (double[]) copy, 0, length);
+    } else if (array instanceof int[] a) {
+      return Arrays.mismatch(a, 0, a.length, (int[]) copy, 0, length);
+    } else if (array instanceof boolean[] a) {
+      return Arrays.mismatch(a, 0, a.length, (boolean[]) copy, 0, length);
+    } else if (array instanceof long[] a) {
+      return Arrays.mismatch(a, 0, a.length, (long[]) copy, 0, length);
+    } else if (array instanceof float[] a) {
+      return Arrays.mismatch(a, 0, a.length, (float[]) copy, 0, length);
+    } else if (array instanceof byte[] a) {
+      return Arrays.mismatch(a, 0, a.length, (byte[]) copy, 0, length);
+    } else if (array instanceof short[] a) {
+      return Arrays.mismatch(a, 0, a.length, (short[]) copy, 0, length);
+    } else if (array instanceof char[] a) {
+      return Arrays.mismatch(a, 0, a.length, (char[]) copy, 0, length);
+    }
+    throw new IllegalArgumentException("not a primitive array: " + array.getClass());
+  }
+}
@@ -0,0 +1,57 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.Predicate;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A {@code boolean} variable, read and compared without boxing.
+ */
+final class BooleanLogVariable extends LogVariable {
+  private final Predicate<Object> getter;
+
+  private boolean prevValue;
+  private boolean hasValue;
+
+  BooleanLogVariable(int typeID, String path, Predicate<Object> getter) {
+    super(typeID, path);
+    this.getter = getter;
+  }
+
+  @Override
+  void log(Object parent) {
+    boolean value;
+    try {
+      value = getter.test(parent);
+    } catch (RuntimeException e) {
+      LogWriter.logException(e, DTLog.Level.ERROR);
+      logNull();
+      return;
+    }
+
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && hasValue && value == prevValue) return;
+
+    writeHandle(writer).writeBoolean(value);
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    prevValue = value;
+    hasValue = true;
+  }
+
+  @Override
+  void logNull() {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && !hasValue) return;
+
+    writeNull(writer);
+    if (isDropped(writer)) return;
+
+    hasValue = false;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofBoolean(table, name, getter);
+  }
+}
@@ -119,7 +119,7 @@ public final class BuiltinLogTypes {
     new LogType((Rotation2d r) -> {
       LogWriter.getInstance()
                  .writeDouble(r.getRadians());
-    }, 0x000000, Rotation2d.class);
+    }, 0x33, Rotation2d.class);
 
     new LogType((Rotation3d r) -> {
       Quaternion q = r.getQuaternion();
@@ -128,20 +128,20 @@ public final class BuiltinLogTypes {
                  .writeDouble(q.getX())
                  .writeDouble(q.getY())
                  .writeDouble(q.getZ());
-    }, 0x000000, Rotation3d.class);
+    }, 0x34, Rotation3d.class);
 
     new LogType((Translation2d t) -> {
       LogWriter.getInstance()
                  .writeDouble(t.getX())
                  .writeDouble(t.getY());
-    }, 0x000000, Translation2d.class);
+    }, 0x35, Translation2d.class);
 
     new LogType((Translation3d t) -> {
       LogWriter.getInstance()
                  .writeDouble(t.getX())
                  .writeDouble(t.getY())
                  .writeDouble(t.getZ());
-    }, 0x000000, Translation3d.class);
+    }, 0x36, Translation3d.class);
 
     new LogType((Pose2d p) -> {
       Translation2d t = p.getTranslation();
@@ -150,7 +150,7 @@ public final class BuiltinLogTypes {
                  .writeDouble(t.getY())
                  .writeDouble(p.getRotation()
                                .getRadians());
-    }, 0x000000, Pose2d.class);
+    }, 0x37, Pose2d.class);
 
     new LogType((Pose3d p) -> {
       Translation3d t = p.getTranslation();
@@ -164,7 +164,7 @@ public final class BuiltinLogTypes {
                  .writeDouble(q.getX())
                  .writeDouble(q.getY())
                  .writeDouble(q.getZ());
-    }, 0x000000, Pose3d.class);
+    }, 0x38, Pose3d.class);
 
     new LogType((Transform2d t) -> {
       Translation2d t2 = t.getTranslation();
@@ -173,7 +173,7 @@ public final class BuiltinLogTypes {
                  .writeDouble(t2.getY())
                  .writeDouble(t.getRotation()
                                .getRadians());
-    }, 0x000000, Transform2d.class);
+    }, 0x39, Transform2d.class);
 
     new LogType((Transform3d t) -> {
       Translation3d t2 = t.getTranslation();
@@ -187,14 +187,14 @@ public final class BuiltinLogTypes {
                  .writeDouble(q.getX())
                  .writeDouble(q.getY())
                  .writeDouble(q.getZ());
-    }, 0x000000, Transform3d.class);
+    }, 0x3A, Transform3d.class);
 
     new LogType((Twist2d t) -> {
       LogWriter.getInstance()
                  .writeDouble(t.dx)
                  .writeDouble(t.dy)
                  .writeDouble(t.dtheta);
-    }, 0x000000, Twist2d.class);
+    }, 0x3B, Twist2d.class);
 
     new LogType((Twist3d t) -> {
       LogWriter.getInstance()
@@ -204,7 +204,7 @@ public final class BuiltinLogTypes {
                  .writeDouble(t.rx)
                  .writeDouble(t.ry)
                  .writeDouble(t.rz);
-    }, 0x000000, Twist3d.class);
+    }, 0x3C, Twist3d.class);
   }
 
   private static void loadDTLib() {
@@ -0,0 +1,108 @@
+package org.victorrobotics.dtlib.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses each block of log data with {@link Deflater} before passing it to
+ * another output. The header at the start of each segment is left as-is, and
+ * every block after it is written as a frame:
+ * <ol>
+ * <li>4 bytes: the compressed length</li>
+ * <li>4 bytes: the uncompressed length</li>
+ * <li>4 bytes: the CRC-32C of the compressed data</li>
+ * <li>the compressed data, a complete zlib stream</li>
+ * </ol>
+ * Each frame can be decompressed on its own, and a frame torn by a power loss
+ * is detected by its checksum.
+ */
+final class CompressedLogOutput implements LogOutput {
+  static final int FRAME_HEADER_BYTES = 12;
+
+  private final LogOutput output;
+  private final Deflater  deflater;
+  private final CRC32C    checksum;
+
+  private ByteBuffer frame;
+  private long       segmentOffset;
+
+  CompressedLogOutput(LogOutput output, int level, int blockSize) {
+    this.output = output;
+    deflater = new Deflater(level);
+    checksum = new CRC32C();
+    frame = ByteBuffer.allocateDirect(FRAME_HEADER_BYTES + blockSize + (blockSize >> 4) + 64);
+  }
+
+  @Override
+  public void write(ByteBuffer data) throws IOException {
+    if (segmentOffset < LogWriter.HEADER_LENGTH) {
+      // Header must remain readable
+      int headerBytes = (int) Math.min(data.remaining(), LogWriter.HEADER_LENGTH - segmentOffset);
+      int limit = data.limit();
+      data.limit(data.position() + headerBytes);
+      output.write(data);
+      data.limit(limit);
+      segmentOffset += headerBytes;
+    }
+
+    int length = data.remaining();
+    if (length == 0) return;
+
+    deflater.reset();
+    deflater.setInput(data);
+    deflater.finish();
+
+    frame.clear()
+         .position(FRAME_HEADER_BYTES);
+    while (!deflater.finished()) {
+      if (!frame.hasRemaining()) {
+        // Incompressible data, rare
+        ByteBuffer larger = ByteBuffer.allocateDirect(frame.capacity() * 2);
+        frame.flip();
+        frame = larger.put(frame);
+      }
+      deflater.deflate(frame);
+    }
+
+    int compressedLength = frame.position() - FRAME_HEADER_BYTES;
+    checksum.reset();
+    checksum.update(frame.duplicate()
+                         .flip()
+                         .position(FRAME_HEADER_BYTES));
+    frame.putInt(0, compressedLength)
+         .putInt(4, length)
+         .putInt(8, (int) checksum.getValue())
+         .flip();
+    output.write(frame);
+    segmentOffset += length;
+  }
+
+  @Override
+  public void nextSegment() throws IOException {
+    output.nextSegment();
+    segmentOffset = 0;
+  }
+
+  @Override
+  public boolean isNextSegmentReady() {
+    return output.isNextSegmentReady();
+  }
+
+  /**
+   * @return the segment limit of the underlying output, which is compared
+   *           against uncompressed data, so segments may end up smaller than
+   *           the limit
+   */
+  @Override
+  public long getSegmentLimit() {
+    return output.getSegmentLimit();
+  }
+
+  @Override
+  public void close() throws IOException {
+    output.close();
+    deflater.end();
+  }
+}
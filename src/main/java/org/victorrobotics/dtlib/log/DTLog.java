@@ -29,13 +29,32 @@ public @interface DTLog {
 
   /**
    * The minimum level at which to begin logging this variable. If this level is
-   * more verbose than this variable's parent object, the variable will be
-   * ignored.
+   * more verbose than this variable's parent object, the variable will not be
+   * logged, unless a level is set for its path while the robot runs.
    *
    * @return
    */
   Level level() default Level.INFO;
 
+  /**
+   * How often to log this variable (and its children), in robot cycles. Values
+   * that change slowly or are expensive to read, such as temperatures, can be
+   * logged less often. Periods are counted in the cycles that the parent
+   * object is logged, so nested periods multiply.
+   *
+   * @return the number of cycles between logs of this variable
+   */
+  int periodCycles() default 1;
+
+  /**
+   * How often to log this variable (and its children), in times per second. If
+   * positive, this overrides {@link #periodCycles()}, rounded to the nearest
+   * whole number of cycles.
+   *
+   * @return the logging rate of this variable
+   */
+  double rateHz() default 0;
+
   /**
    * The amount of detail to include in generated logs and messages.
    * <p>
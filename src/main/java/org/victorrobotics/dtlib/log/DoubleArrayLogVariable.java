@@ -0,0 +1,87 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A compressed {@code double[]} variable. Each element is XOR-encoded against
+ * the element at the same index in the last array written since the variable
+ * was declared, or zero if that array was shorter (see {@link XorEncoding}).
+ * The window restarts with each array. Like {@link ArraySnapshot}, arrays are
+ * compared by their contents.
+ */
+final class DoubleArrayLogVariable extends LogVariable {
+  private final UnaryOperator<Object> getter;
+
+  private double[] written;
+  private int      writtenLength;
+  private int      prevLength = -1;
+
+  DoubleArrayLogVariable(int typeID, String path, UnaryOperator<Object> getter) {
+    super(typeID, path);
+    this.getter = getter;
+    this.written = new double[0];
+  }
+
+  @Override
+  void log(Object parent) {
+    logValue((double[]) getter.apply(parent));
+  }
+
+  @Override
+  void logNull() {
+    logValue(null);
+  }
+
+  private void logValue(double[] value) {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && isUnchanged(value)) return;
+
+    if (value == null) {
+      writeNull(writer);
+      if (isDropped(writer)) return;
+
+      prevLength = -1;
+      return;
+    }
+
+    if (value.length > 0xFFFF) {
+      throw new IllegalArgumentException("array is too large to log");
+    }
+
+    writeHandle(writer).writeShort(value.length);
+    int window = XorEncoding.NO_WINDOW;
+    for (int i = 0; i < value.length; i++) {
+      long prevBits = i < writtenLength ? Double.doubleToLongBits(written[i]) : 0;
+      long xor = Double.doubleToLongBits(value[i]) ^ prevBits;
+      window = XorEncoding.writeXor(writer, xor, window);
+    }
+    writer.alignBits();
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    if (written.length < value.length) {
+      written = new double[value.length];
+    }
+    System.arraycopy(value, 0, written, 0, value.length);
+    writtenLength = value.length;
+    prevLength = value.length;
+  }
+
+  private boolean isUnchanged(double[] value) {
+    if (value == null || prevLength < 0) return value == null && prevLength < 0;
+    return Arrays.mismatch(value, 0, value.length, written, 0, prevLength) < 0;
+  }
+
+  @Override
+  void declared() {
+    // Encoding restarts from zeros
+    writtenLength = 0;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofObject(table, name, LogWriter.LOG_TYPES.get(double[].class), getter);
+  }
+}
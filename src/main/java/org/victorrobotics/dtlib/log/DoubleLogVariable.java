@@ -0,0 +1,81 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.ToDoubleFunction;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A {@code double} variable, read and compared without boxing. If compressed,
+ * each value is XOR-encoded against the last value written in the current
+ * segment or since the last checkpoint (see {@link XorEncoding}).
+ */
+final class DoubleLogVariable extends LogVariable {
+  private final ToDoubleFunction<Object> getter;
+  private final boolean                  compressed;
+
+  private long    prevBits;
+  private boolean hasValue;
+  private int     window;
+
+  DoubleLogVariable(int typeID, String path, ToDoubleFunction<Object> getter, boolean compressed) {
+    super(typeID, path);
+    this.getter = getter;
+    this.compressed = compressed;
+  }
+
+  @Override
+  void log(Object parent) {
+    double value;
+    try {
+      value = getter.applyAsDouble(parent);
+    } catch (RuntimeException e) {
+      LogWriter.logException(e, DTLog.Level.ERROR);
+      logNull();
+      return;
+    }
+
+    long bits = Double.doubleToLongBits(value);
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && hasValue && bits == prevBits) return;
+
+    if (!compressed) {
+      writeHandle(writer).writeDouble(value);
+      if (isDropped(writer)) return;
+
+      prevBits = bits;
+      hasValue = true;
+      return;
+    }
+
+    int nextWindow = XorEncoding.writeXor(writeHandle(writer), bits ^ prevBits, window);
+    writer.alignBits();
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    prevBits = bits;
+    window = nextWindow;
+    hasValue = true;
+  }
+
+  @Override
+  void declared() {
+    // Encoding restarts from zero
+    prevBits = 0;
+    window = XorEncoding.NO_WINDOW;
+  }
+
+  @Override
+  void logNull() {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && !hasValue) return;
+
+    writeNull(writer);
+    if (isDropped(writer)) return;
+
+    hasValue = false;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofDouble(table, name, getter);
+  }
+}
@@ -0,0 +1,59 @@
+package org.victorrobotics.dtlib.log;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The default log output, writing each segment through a {@link FileChannel}.
+ */
+final class FileLogOutput implements LogOutput {
+  private final File   directory;
+  private final String baseName;
+
+  private FileChannel channel;
+  private int         segmentIndex;
+
+  FileLogOutput(File directory, String baseName) throws IOException {
+    this.directory = directory;
+    this.baseName = baseName;
+    channel = open();
+  }
+
+  private FileChannel open() throws IOException {
+    File file = new File(directory, LogOutput.getSegmentName(baseName, segmentIndex));
+    return FileChannel.open(file.toPath(), WRITE, CREATE, TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public void write(ByteBuffer data) throws IOException {
+    while (data.hasRemaining()) {
+      channel.write(data);
+    }
+  }
+
+  @Override
+  public void nextSegment() throws IOException {
+    // Open the next file first, so a failure leaves the current one in use
+    segmentIndex++;
+    FileChannel next;
+    try {
+      next = open();
+    } catch (IOException e) {
+      segmentIndex--;
+      throw e;
+    }
+    channel.close();
+    channel = next;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,136 @@
+package org.victorrobotics.dtlib.log;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Optional Java Flight Recorder events for the parts of the robot cycle, so
+ * that a recording shows lock, GC and I/O stalls lined up against them. Every
+ * {@link Watchdog} epoch is recorded as a phase, including each subsystem's
+ * {@code periodic()} and each command lifecycle call, along with each write of
+ * log data.
+ * <p>
+ * Events are disabled by default, and cost a single check until enabled. They
+ * are only committed while a recording is running. Callers hold events as
+ * plain objects, so that the {@code jdk.jfr} module is never loaded unless
+ * events are enabled.
+ */
+public final class FlightRecorderEvents {
+  private static boolean enabled;
+
+  /** A part of the robot cycle */
+  @Name("org.victorrobotics.dtlib.Phase")
+  @Label("Robot Phase")
+  @Category("DTLib")
+  @StackTrace(false)
+  static final class PhaseEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+  }
+
+  /** A block of log data written to the output */
+  @Name("org.victorrobotics.dtlib.LogWrite")
+  @Label("Log Write")
+  @Category("DTLib")
+  @StackTrace(false)
+  static final class WriteEvent extends Event {
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Background Thread")
+    boolean async;
+  }
+
+  private FlightRecorderEvents() {}
+
+  /**
+   * Enables or disables recording events. Ignored if the runtime doesn't
+   * include the {@code jdk.jfr} module.
+   *
+   * @param enable whether to record events
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable && ModuleLayer.boot()
+                                   .findModule("jdk.jfr")
+                                   .isPresent();
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts timing a phase of the robot cycle.
+   *
+   * @return the event to pass to {@link #endPhase(Object, String)}, or null if
+   *           events are disabled
+   */
+  public static Object beginPhase() {
+    if (!enabled) return null;
+
+    PhaseEvent event = new PhaseEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends a phase of the robot cycle, and commits it if a recording is running.
+   *
+   * @param event the event returned by {@link #beginPhase()}, may be null
+   * @param name the name of the phase
+   */
+  public static void endPhase(Object event, String name) {
+    if (event == null) return;
+
+    PhaseEvent phase = (PhaseEvent) event;
+    phase.end();
+    if (phase.shouldCommit()) {
+      phase.name = name;
+      phase.commit();
+    }
+  }
+
+  /**
+   * Ends a Watchdog epoch, only building its label if it will be committed.
+   */
+  static void endEpoch(Object event, int epochID, Object subject, long allocatedBytes) {
+    if (event == null) return;
+
+    PhaseEvent phase = (PhaseEvent) event;
+    phase.end();
+    if (phase.shouldCommit()) {
+      phase.name = Watchdog.getLabel(epochID, subject);
+      phase.allocatedBytes = allocatedBytes;
+      phase.commit();
+    }
+  }
+
+  static Object beginWrite() {
+    if (!enabled) return null;
+
+    WriteEvent event = new WriteEvent();
+    event.begin();
+    return event;
+  }
+
+  static void endWrite(Object event, long bytes, boolean async) {
+    if (event == null) return;
+
+    WriteEvent write = (WriteEvent) event;
+    write.end();
+    if (write.shouldCommit()) {
+      write.bytes = bytes;
+      write.async = async;
+      write.commit();
+    }
+  }
+}
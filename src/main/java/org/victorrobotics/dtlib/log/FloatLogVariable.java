@@ -0,0 +1,58 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.ToDoubleFunction;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A {@code float} variable, read and compared without boxing.
+ */
+final class FloatLogVariable extends LogVariable {
+  private final ToDoubleFunction<Object> getter;
+
+  private int     prevBits;
+  private boolean hasValue;
+
+  FloatLogVariable(int typeID, String path, ToDoubleFunction<Object> getter) {
+    super(typeID, path);
+    this.getter = getter;
+  }
+
+  @Override
+  void log(Object parent) {
+    float value;
+    try {
+      value = (float) getter.applyAsDouble(parent);
+    } catch (RuntimeException e) {
+      LogWriter.logException(e, DTLog.Level.ERROR);
+      logNull();
+      return;
+    }
+
+    int bits = Float.floatToIntBits(value);
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && hasValue && bits == prevBits) return;
+
+    writeHandle(writer).writeFloat(value);
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    prevBits = bits;
+    hasValue = true;
+  }
+
+  @Override
+  void logNull() {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && !hasValue) return;
+
+    writeNull(writer);
+    if (isDropped(writer)) return;
+
+    hasValue = false;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofDouble(table, name, getter);
+  }
+}
@@ -0,0 +1,71 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.ToIntFunction;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * An {@code int}, {@code short}, {@code char} or {@code byte} variable, read
+ * and compared without boxing.
+ */
+final class IntLogVariable extends LogVariable {
+  private final ToIntFunction<Object> getter;
+  private final int                   sizeBytes;
+
+  private int     prevValue;
+  private boolean hasValue;
+
+  IntLogVariable(int typeID, String path, int sizeBytes, ToIntFunction<Object> getter) {
+    super(typeID, path);
+    this.sizeBytes = sizeBytes;
+    this.getter = getter;
+  }
+
+  @Override
+  void log(Object parent) {
+    int value;
+    try {
+      value = getter.applyAsInt(parent);
+    } catch (RuntimeException e) {
+      LogWriter.logException(e, DTLog.Level.ERROR);
+      logNull();
+      return;
+    }
+
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && hasValue && value == prevValue) return;
+
+    writeHandle(writer);
+    switch (sizeBytes) {
+      case 1:
+        writer.writeByte(value);
+        break;
+      case 2:
+        writer.writeShort(value);
+        break;
+      default:
+        writer.writeInt(value);
+        break;
+    }
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    prevValue = value;
+    hasValue = true;
+  }
+
+  @Override
+  void logNull() {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && !hasValue) return;
+
+    writeNull(writer);
+    if (isDropped(writer)) return;
+
+    hasValue = false;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofInt(table, name, getter);
+  }
+}
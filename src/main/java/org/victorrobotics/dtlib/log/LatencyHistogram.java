@@ -0,0 +1,87 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size log-linear histogram of durations in microseconds. Durations
+ * under 64 microseconds are counted exactly, and longer ones are counted in
+ * buckets 1/32 as wide as their power of two, so any percentile is accurate
+ * to about 3%. Recording never allocates.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS  = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT     = SUB_BUCKET_COUNT << 1;
+  private static final int BUCKET_COUNT     = SUB_BUCKET_COUNT * (32 - SUB_BUCKET_BITS);
+
+  private final int[] counts;
+
+  private long totalCount;
+  private long max;
+
+  LatencyHistogram() {
+    counts = new int[BUCKET_COUNT];
+  }
+
+  void record(long micros) {
+    if (micros < 0) {
+      micros = 0;
+    } else if (micros > Integer.MAX_VALUE) {
+      micros = Integer.MAX_VALUE;
+    }
+
+    counts[getIndex(micros)]++;
+    totalCount++;
+    if (micros > max) {
+      max = micros;
+    }
+  }
+
+  void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    max = 0;
+  }
+
+  long getCount() {
+    return totalCount;
+  }
+
+  long getMax() {
+    return max;
+  }
+
+  /**
+   * @param percentile the percentile, from 0 to 100
+   * @return the highest duration in the bucket containing the percentile, or
+   *           0 if nothing has been recorded
+   */
+  long getValueAtPercentile(double percentile) {
+    if (totalCount == 0) return 0;
+
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+    long cumulative = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      cumulative += counts[i];
+      if (cumulative >= target) {
+        return Math.min(getHighestValue(i), max);
+      }
+    }
+    return max;
+  }
+
+  private static int getIndex(long value) {
+    if (value < LINEAR_LIMIT) return (int) value;
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift << SUB_BUCKET_BITS) + (int) (value >> shift);
+  }
+
+  private static long getHighestValue(int index) {
+    if (index < LINEAR_LIMIT) return index;
+
+    int shift = (index >> SUB_BUCKET_BITS) - 1;
+    long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,326 @@
+package org.victorrobotics.dtlib.log;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Generates accessors for loggable members while the log tree is built, so
+ * that reading a value each cycle doesn't go through reflection.
+ * <p>
+ * Public getters of public classes are bound with {@link LambdaMetafactory},
+ * producing a plain lambda the JIT can inline. Other members, which must
+ * already be accessible, are read through a {@link MethodHandle}. Reflection
+ * is used only if neither can be created.
+ * <p>
+ * Primitive getters never box their values. They return null if no method
+ * handle can be created, in which case the member should be logged as an
+ * object instead. Exceptions thrown by the member are propagated to the
+ * caller.
+ */
+final class LogAccessors {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType OBJECT_GETTER   = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType OBJECT_SUPPLIER = MethodType.methodType(Object.class);
+  private static final MethodType DOUBLE_GETTER   = MethodType.methodType(double.class, Object.class);
+  private static final MethodType LONG_GETTER     = MethodType.methodType(long.class, Object.class);
+  private static final MethodType INT_GETTER      = MethodType.methodType(int.class, Object.class);
+  private static final MethodType BOOLEAN_GETTER  = MethodType.methodType(boolean.class, Object.class);
+
+  private LogAccessors() {}
+
+  static UnaryOperator<Object> getter(Field field) {
+    MethodHandle handle = unreflectGetter(field);
+    if (handle != null) {
+      MethodHandle getter = handle.asType(OBJECT_GETTER);
+      return parent -> {
+        try {
+          return getter.invokeExact(parent);
+        } catch (Throwable t) {
+          LogWriter.logException(t, DTLog.Level.ERROR);
+          return null;
+        }
+      };
+    }
+
+    return parent -> {
+      try {
+        return field.get(parent);
+      } catch (IllegalAccessException | IllegalArgumentException e) {
+        LogWriter.logException(e, DTLog.Level.ERROR);
+        return null;
+      }
+    };
+  }
+
+  static Supplier<Object> staticGetter(Field field) {
+    MethodHandle handle = unreflectGetter(field);
+    if (handle != null) {
+      MethodHandle getter = handle.asType(OBJECT_SUPPLIER);
+      return () -> {
+        try {
+          return getter.invokeExact();
+        } catch (Throwable t) {
+          LogWriter.logException(t, DTLog.Level.ERROR);
+          return null;
+        }
+      };
+    }
+
+    return () -> {
+      try {
+        return field.get(null);
+      } catch (IllegalAccessException | IllegalArgumentException e) {
+        LogWriter.logException(e, DTLog.Level.ERROR);
+        return null;
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static UnaryOperator<Object> getter(Method method) {
+    MethodHandle handle = unreflect(method);
+    if (handle != null) {
+      UnaryOperator<Object> lambda = (UnaryOperator<Object>) metafactory(method,
+                                                                         UnaryOperator.class,
+                                                                         "apply", OBJECT_GETTER);
+      if (lambda != null) {
+        return parent -> {
+          try {
+            return lambda.apply(parent);
+          } catch (RuntimeException | Error e) {
+            LogWriter.logException(e, DTLog.Level.ERROR);
+            return null;
+          }
+        };
+      }
+
+      MethodHandle getter = handle.asType(OBJECT_GETTER);
+      return parent -> {
+        try {
+          return getter.invokeExact(parent);
+        } catch (Throwable t) {
+          LogWriter.logException(t, DTLog.Level.ERROR);
+          return null;
+        }
+      };
+    }
+
+    return parent -> {
+      try {
+        return method.invoke(parent, (Object[]) null);
+      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        LogWriter.logException(e, DTLog.Level.ERROR);
+        return null;
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static Supplier<Object> staticGetter(Method method) {
+    MethodHandle handle = unreflect(method);
+    if (handle != null) {
+      Supplier<Object> lambda = (Supplier<Object>) metafactory(method, Supplier.class, "get",
+                                                               OBJECT_SUPPLIER);
+      if (lambda != null) {
+        return () -> {
+          try {
+            return lambda.get();
+          } catch (RuntimeException | Error e) {
+            LogWriter.logException(e, DTLog.Level.ERROR);
+            return null;
+          }
+        };
+      }
+
+      MethodHandle getter = handle.asType(OBJECT_SUPPLIER);
+      return () -> {
+        try {
+          return getter.invokeExact();
+        } catch (Throwable t) {
+          LogWriter.logException(t, DTLog.Level.ERROR);
+          return null;
+        }
+      };
+    }
+
+    return () -> {
+      try {
+        return method.invoke(null, (Object[]) null);
+      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        LogWriter.logException(e, DTLog.Level.ERROR);
+        return null;
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static ToDoubleFunction<Object> doubleGetter(Member member) {
+    Object lambda = metafactory(member, ToDoubleFunction.class, "applyAsDouble", DOUBLE_GETTER);
+    if (lambda != null) return (ToDoubleFunction<Object>) lambda;
+
+    MethodHandle getter = primitiveHandle(member, DOUBLE_GETTER);
+    if (getter == null) return null;
+
+    return parent -> {
+      try {
+        return (double) getter.invokeExact(parent);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static ToLongFunction<Object> longGetter(Member member) {
+    Object lambda = metafactory(member, ToLongFunction.class, "applyAsLong", LONG_GETTER);
+    if (lambda != null) return (ToLongFunction<Object>) lambda;
+
+    MethodHandle getter = primitiveHandle(member, LONG_GETTER);
+    if (getter == null) return null;
+
+    return parent -> {
+      try {
+        return (long) getter.invokeExact(parent);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static ToIntFunction<Object> intGetter(Member member) {
+    Object lambda = metafactory(member, ToIntFunction.class, "applyAsInt", INT_GETTER);
+    if (lambda != null) return (ToIntFunction<Object>) lambda;
+
+    MethodHandle getter = primitiveHandle(member, INT_GETTER);
+    if (getter == null) return null;
+
+    return parent -> {
+      try {
+        return (int) getter.invokeExact(parent);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static Predicate<Object> booleanGetter(Member member) {
+    Object lambda = metafactory(member, Predicate.class, "test", BOOLEAN_GETTER);
+    if (lambda != null) return (Predicate<Object>) lambda;
+
+    MethodHandle getter = primitiveHandle(member, BOOLEAN_GETTER);
+    if (getter == null) return null;
+
+    return parent -> {
+      try {
+        return (boolean) getter.invokeExact(parent);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+    };
+  }
+
+  /**
+   * Creates a handle for a field or method of primitive type, adapted to take
+   * the parent object (ignored by static members) and return the given type.
+   */
+  private static MethodHandle primitiveHandle(Member member, MethodType type) {
+    MethodHandle handle;
+    if (member instanceof Field field) {
+      handle = unreflectGetter(field);
+    } else if (member instanceof Method method) {
+      handle = unreflect(method);
+    } else {
+      return null;
+    }
+    if (handle == null) return null;
+
+    if (Modifier.isStatic(member.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+
+    try {
+      return handle.asType(type);
+    } catch (WrongMethodTypeException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle unreflectGetter(Field field) {
+    try {
+      // Field has already been made accessible
+      return LOOKUP.unreflectGetter(field);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      // Method has already been made accessible
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Spins a lambda implementing the given interface by directly calling the
+   * given method. This only works for methods the generated class could call
+   * itself, i.e. public methods of public classes. Static methods aren't
+   * supported, as the interface method always takes the parent object.
+   *
+   * @return the generated lambda, or null if it could not be created
+   */
+  private static Object metafactory(Member member, Class<?> functionalInterface, String methodName,
+                                    MethodType erasedType) {
+    if (!(member instanceof Method method)) return null;
+
+    Class<?> clazz = method.getDeclaringClass();
+    int modifiers = method.getModifiers();
+    if (!Modifier.isPublic(modifiers) || !Modifier.isPublic(clazz.getModifiers())
+        || (Modifier.isStatic(modifiers) && erasedType.parameterCount() != 0)
+        || clazz.getClassLoader() != LogAccessors.class.getClassLoader()) {
+      return null;
+    }
+
+    try {
+      MethodHandle handle = LOOKUP.unreflect(method);
+      MethodType instantiatedType = handle.type()
+                                          .changeReturnType(erasedType.returnType());
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, methodName,
+                                                    MethodType.methodType(functionalInterface),
+                                                    erasedType, handle, instantiatedType);
+      return site.getTarget()
+                 .invoke();
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+}
@@ -2,14 +2,14 @@ package org.victorrobotics.dtlib.log;
 
 import static org.victorrobotics.dtlib.log.LogWriter.LOG_PATH_SEPARATOR;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
 
 public class LogNode {
@@ -17,8 +17,11 @@ public class LogNode {
   private final Class<?>              type;
   private final UnaryOperator<Object> getter;
 
-  private LogNode[] children;
-  private LogVariable        variable;
+  private LogNode[]   children;
+  private DTLog[]     annotations;
+  private boolean[]   enabled;
+  private LogSchedule schedule;
+  private LogVariable variable;
 
   public LogNode(String path, String name, Class<?> type, UnaryOperator<Object> getter) {
     this.path = path + LOG_PATH_SEPARATOR + name;
@@ -26,134 +29,238 @@ public class LogNode {
     this.getter = getter;
   }
 
+  LogNode(LogVariable variable) {
+    this.path = variable.toString();
+    this.type = null;
+    this.getter = null;
+    this.variable = variable;
+  }
+
   protected final void init(Deque<Class<?>> stack, Set<Class<?>> clazzes,
-                            Map<StaticLogVariable, DTLog.Level> staticVars, DTLog.Level logLevel) {
+                            Map<LogNode, DTLog> staticVars) {
+    if (variable != null) {
+      // Primitive, already initialized
+      return;
+    }
 
     if (stack.contains(type)) {
       // Prevent infinite recursion
       return;
     }
 
-    Map<LogNode, DTLog.Level> childrenMap = new LinkedHashMap<>();
+    Map<LogNode, DTLog> childrenMap = new LinkedHashMap<>();
     Class<?> clazz = type;
     while (clazz != null) {
       if (childrenMap.isEmpty()) {
         LogType logType = LogWriter.LOG_TYPES.get(clazz);
-        if (logType != null) {
-          variable = new LogVariable(logType, path);
+        if (clazz == double[].class && LogWriter.isDoubleCompressionEnabled()) {
+          variable = new DoubleArrayLogVariable(XorEncoding.DOUBLE_ARRAY_TYPE_ID, path, getter);
+          return;
+        } else if (logType != null) {
+          variable = new ObjectLogVariable(logType, path, getter);
           return;
         }
       }
 
       boolean includeStatic = clazzes.add(clazz);
 
-      for (Field field : clazz.getDeclaredFields()) {
-        initField(field, childrenMap, staticVars, includeStatic);
-      }
-
-      for (Method method : clazz.getDeclaredMethods()) {
-        initMethod(method, childrenMap, staticVars, includeStatic);
+      for (LogSchema.Entry entry : LogSchema.getEntries(clazz)) {
+        initMember(entry, childrenMap, staticVars, includeStatic);
       }
 
       clazz = clazz.getSuperclass();
     }
 
     stack.addFirst(type);
-    childrenMap.entrySet()
-               .removeIf(entry -> {
-                 DTLog.Level childLogLevel = entry.getValue();
-                 if (childLogLevel.ordinal() < logLevel.ordinal()) return true;
-
-                 LogNode child = entry.getKey();
-                 child.init(stack, clazzes, staticVars, childLogLevel);
+    childrenMap.keySet()
+               .removeIf(child -> {
+                 child.init(stack, clazzes, staticVars);
                  return child.variable == null && child.children == null;
                });
     stack.removeFirst();
 
-    this.children = childrenMap.isEmpty() ? null : childrenMap.keySet()
-                                                              .toArray(LogNode[]::new);
+    if (!childrenMap.isEmpty()) {
+      setChildren(childrenMap);
+    }
   }
 
-  private void initField(Field field, Map<LogNode, DTLog.Level> childList,
-                         Map<StaticLogVariable, DTLog.Level> staticVars, boolean includeStatic) {
-    DTLog annotation = field.getAnnotation(DTLog.class);
-    if (annotation == null) return;
+  /**
+   * Sets the children of this node, all initially disabled until
+   * {@link #applyLevels(DTLog.Level, Map)} is called.
+   */
+  final void setChildren(Map<LogNode, DTLog> childrenMap) {
+    children = childrenMap.keySet()
+                          .toArray(LogNode[]::new);
+    annotations = childrenMap.values()
+                             .toArray(DTLog[]::new);
+    enabled = new boolean[children.length];
+  }
 
-    boolean isStatic = Modifier.isStatic(field.getModifiers());
-    if (isStatic && !includeStatic) return;
+  /**
+   * Enables the children whose level is at least the threshold, or whose path
+   * has its own level, and disables the rest. The schedule is only rebuilt if
+   * a child was enabled or disabled, so disabled children are never visited.
+   * Within an enabled child, the threshold becomes the child's own level.
+   * <p>
+   * Children that would be disabled, but contain a path with its own level,
+   * are enabled with no threshold, so that only the children on the way to
+   * that path are enabled inside them.
+   *
+   * @param threshold the minimum level of children to enable, or null to only
+   *        enable the way to paths with their own levels
+   * @param overrides levels set for specific paths, applying to everything
+   *        below them
+   */
+  final void applyLevels(DTLog.Level threshold, Map<String, DTLog.Level> overrides) {
+    if (children == null) return;
 
-    if (!field.trySetAccessible()) return;
+    boolean changed = false;
+    for (int i = 0; i < children.length; i++) {
+      DTLog.Level override = overrides.get(children[i].path);
+      DTLog.Level level = annotations[i].level();
+      boolean enable = true;
+      if (override != null) {
+        children[i].applyLevels(override, overrides);
+      } else if (threshold != null && level.ordinal() >= threshold.ordinal()) {
+        children[i].applyLevels(level, overrides);
+      } else if (containsOverride(children[i].path, overrides)) {
+        children[i].applyLevels(null, overrides);
+      } else {
+        enable = false;
+      }
+      if (enable != enabled[i]) {
+        enabled[i] = enable;
+        changed = true;
+      }
+    }
 
-    String name = annotation.name();
-    if (!isValidName(name)) {
-      name = field.getName();
+    if (changed) {
+      Map<LogNode, DTLog> enabledChildren = new LinkedHashMap<>();
+      for (int i = 0; i < children.length; i++) {
+        if (enabled[i]) {
+          enabledChildren.put(children[i], annotations[i]);
+        }
+      }
+      schedule = enabledChildren.isEmpty() ? null : new LogSchedule(enabledChildren, path.hashCode());
     }
+  }
 
-    if (isStatic) {
-      LogType logType = LogWriter.LOG_TYPES.get(field.getType());
+  private void initMember(LogSchema.Entry entry, Map<LogNode, DTLog> childList,
+                          Map<LogNode, DTLog> staticVars, boolean includeStatic) {
+    if (entry.isStatic && !includeStatic) return;
+
+    Class<?> declaringClass = entry.member.getDeclaringClass();
+    if (entry.type.isPrimitive()) {
+      String varPath = entry.isStatic ? StaticLogVariable.getPath(declaringClass, entry.name)
+          : path + LOG_PATH_SEPARATOR + entry.name;
+      LogVariable primitive = newPrimitiveVariable(varPath, entry);
+      if (primitive != null) {
+        if (entry.isStatic) {
+          staticVars.put(new LogNode(primitive), entry.annotation);
+        } else {
+          childList.put(new LogNode(primitive), entry.annotation);
+        }
+        return;
+      }
+    }
+
+    if (entry.isStatic) {
+      LogType logType = LogWriter.LOG_TYPES.get(entry.type);
       if (logType == null) return;
 
-      staticVars.put(new StaticLogVariable(logType, field.getDeclaringClass(), name, () -> {
-        try {
-          return field.get(null);
-        } catch (IllegalAccessException | IllegalArgumentException e) {
-          LogWriter.logException(e, DTLog.Level.ERROR);
-          return null;
-        }
-      }), annotation.level());
+      staticVars.put(new LogNode(new StaticLogVariable(logType, declaringClass, entry.name,
+                                                       entry.staticGetter())),
+                     entry.annotation);
       return;
     }
 
-    childList.put(new LogNode(path, name, field.getType(), parent -> {
-      try {
-        return field.get(parent);
-      } catch (IllegalAccessException | IllegalArgumentException e) {
-        LogWriter.logException(e, DTLog.Level.ERROR);
-        return null;
-      }
-    }), annotation.level());
+    childList.put(new LogNode(path, entry.name, entry.type, entry.getter()), entry.annotation);
   }
 
-  private void initMethod(Method method, Map<LogNode, DTLog.Level> childList,
-                          Map<StaticLogVariable, DTLog.Level> staticVars, boolean includeStatic) {
-    DTLog annotation = method.getAnnotation(DTLog.class);
-    if (annotation == null) return;
+  /**
+   * Creates a variable that reads and logs a primitive member without boxing.
+   *
+   * @return the variable, or null if the member must be logged as an object
+   */
+  private static LogVariable newPrimitiveVariable(String path, LogSchema.Entry entry) {
+    Class<?> type = entry.type;
+    LogType logType = LogWriter.LOG_TYPES.get(type);
+    if (logType == null) return null;
+
+    if (type == double.class || type == float.class) {
+      ToDoubleFunction<Object> primitiveGetter = entry.primitiveGetter(LogAccessors::doubleGetter);
+      if (primitiveGetter == null) return null;
+      if (type == float.class) return new FloatLogVariable(logType.id, path, primitiveGetter);
+
+      boolean compressed = LogWriter.isDoubleCompressionEnabled();
+      return new DoubleLogVariable(compressed ? XorEncoding.DOUBLE_TYPE_ID : logType.id, path,
+                                   primitiveGetter, compressed);
+    } else if (type == long.class) {
+      ToLongFunction<Object> primitiveGetter = entry.primitiveGetter(LogAccessors::longGetter);
+      if (primitiveGetter == null) return null;
+      return new LongLogVariable(logType.id, path, primitiveGetter);
+    } else if (type == boolean.class) {
+      Predicate<Object> primitiveGetter = entry.primitiveGetter(LogAccessors::booleanGetter);
+      if (primitiveGetter == null) return null;
+      return new BooleanLogVariable(logType.id, path, primitiveGetter);
+    }
 
-    if (method.getParameterCount() != 0 || method.getReturnType() == void.class) return;
+    int size;
+    if (type == int.class) {
+      size = 4;
+    } else if (type == short.class || type == char.class) {
+      size = 2;
+    } else if (type == byte.class) {
+      size = 1;
+    } else {
+      return null;
+    }
 
-    boolean isStatic = Modifier.isStatic(method.getModifiers());
-    if (isStatic && !includeStatic) return;
+    ToIntFunction<Object> primitiveGetter = entry.primitiveGetter(LogAccessors::intGetter);
+    if (primitiveGetter == null) return null;
+    return new IntLogVariable(logType.id, path, size, primitiveGetter);
+  }
 
-    if (!method.trySetAccessible()) return;
+  /**
+   * Adds the variables below this node that are inside a path to telemetry,
+   * descending only into the nodes on the way to it.
+   *
+   * @param selected the path to publish
+   * @param objectGetter resolves this node's object from the robot
+   * @param telemetry the telemetry to add to
+   */
+  final void collectTelemetry(String selected, UnaryOperator<Object> objectGetter,
+                              LogTelemetry telemetry) {
+    if (children == null) return;
 
-    String name = annotation.name();
-    if (!isValidName(name)) {
-      name = method.getName() + "()";
+    for (LogNode child : children) {
+      if (child.variable != null) {
+        if (isInside(child.path, selected)) {
+          telemetry.add(child.variable, objectGetter);
+        }
+      } else if (isInside(child.path, selected) || isInside(selected, child.path)) {
+        child.collectTelemetry(selected, unused -> {
+          Object object = objectGetter.apply(null);
+          return object == null ? null : child.getter.apply(object);
+        }, telemetry);
+      }
     }
+  }
 
-    if (isStatic) {
-      LogType logType = LogWriter.LOG_TYPES.get(method.getReturnType());
-      if (logType == null) return;
+  final void collectTelemetry(String selected, LogTelemetry telemetry) {
+    collectTelemetry(selected, getter, telemetry);
+  }
 
-      staticVars.put(new StaticLogVariable(logType, method.getDeclaringClass(), name, () -> {
-        try {
-          return method.invoke(null, (Object[]) null);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-          LogWriter.logException(e, DTLog.Level.ERROR);
-          return null;
-        }
-      }), annotation.level());
-      return;
+  private static boolean containsOverride(String path, Map<String, DTLog.Level> overrides) {
+    for (String overridden : overrides.keySet()) {
+      if (overridden.length() > path.length() && isInside(overridden, path)) return true;
     }
+    return false;
+  }
 
-    childList.put(new LogNode(path, name, method.getReturnType(), parent -> {
-      try {
-        return method.invoke(parent, (Object[]) null);
-      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-        LogWriter.logException(e, DTLog.Level.ERROR);
-        return null;
-      }
-    }), annotation.level());
+  private static boolean isInside(String path, String ancestor) {
+    return path.startsWith(ancestor) && (path.length() == ancestor.length()
+        || path.startsWith(LOG_PATH_SEPARATOR, ancestor.length()));
   }
 
   protected void log(Object parent) {
@@ -162,27 +269,23 @@ public class LogNode {
       return;
     }
 
-    Object value = getter.apply(parent);
     if (variable != null) {
-      variable.logValue(value);
+      variable.log(parent);
       return;
     }
 
-    if (children == null) return;
-    for (LogNode child : children) {
-      child.log(value);
-    }
+    if (schedule == null) return;
+    schedule.log(getter.apply(parent));
   }
 
   private void logNull() {
     if (variable != null) {
-      variable.logValue(null);
+      variable.logNull();
       return;
     }
 
-    for (LogNode child : children) {
-      child.logNull();
-    }
+    if (schedule == null) return;
+    schedule.log(null);
   }
 
   @Override
@@ -199,8 +302,4 @@ public class LogNode {
     }
     return builder.toString();
   }
-
-  private static boolean isValidName(String name) {
-    return name != null && name.length() > 0 && name.indexOf('/') == -1;
-  }
 }
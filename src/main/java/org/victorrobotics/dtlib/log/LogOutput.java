@@ -0,0 +1,50 @@
+package org.victorrobotics.dtlib.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A destination for encoded log data drained from a {@link LogWriter}'s
+ * buffer. Output is divided into segments, each stored in its own file and
+ * beginning with a log header.
+ */
+interface LogOutput extends Closeable {
+  /**
+   * Writes all remaining bytes of the given buffer to the current segment.
+   *
+   * @param data the data to write
+   * @throws IOException if an I/O error occurs
+   */
+  void write(ByteBuffer data) throws IOException;
+
+  /**
+   * Ends the current segment. All data written afterwards will be stored in
+   * a new file.
+   *
+   * @throws IOException if an I/O error occurs, in which case the current
+   *         segment continues
+   */
+  void nextSegment() throws IOException;
+
+  /**
+   * @return whether {@link #nextSegment()} can switch files without waiting,
+   *           otherwise the writer continues the current segment and tries
+   *           again on a later cycle
+   */
+  default boolean isNextSegmentReady() {
+    return true;
+  }
+
+  /**
+   * @return the number of bytes after which the writer should begin a new
+   *           segment, or {@link Long#MAX_VALUE} if segments are unbounded
+   */
+  default long getSegmentLimit() {
+    return Long.MAX_VALUE;
+  }
+
+  static String getSegmentName(String baseName, int index) {
+    return index == 0 ? baseName + ".dtlog" : String.format("%s_%03d.dtlog", baseName, index);
+  }
+}
@@ -0,0 +1,109 @@
+package org.victorrobotics.dtlib.log;
+
+import org.victorrobotics.dtlib.DTRobot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Determines which children of a node are logged each cycle. Children logged
+ * every cycle are kept in order, while slower children are grouped by period,
+ * and each group is split into one bucket per cycle of its period. Only one
+ * bucket of each group is logged per cycle.
+ * <p>
+ * Slow children are placed into buckets in turn, continuing across all
+ * groups, so that their cost is spread evenly over the cycles rather than
+ * landing on the same one. Each node starts from a phase derived from its
+ * path, so slow children of different nodes are spread out too, and
+ * rebuilding one node's schedule never moves another's.
+ * <p>
+ * On the first cycle, and whenever the writer has started a checkpoint or a
+ * new segment, every child is logged regardless of its bucket, so that a
+ * reader starting there has the current value of every enabled variable.
+ */
+final class LogSchedule {
+  private static final LogNode[] NO_NODES = {};
+
+  private final LogNode[]     everyCycle;
+  private final LogNode[][][] groups;
+
+  private long cycle;
+  private int  generation = Integer.MIN_VALUE;
+
+  /**
+   * @param children the enabled children and their annotations
+   * @param firstPhase the bucket of the first slow child, modulo its period
+   */
+  LogSchedule(Map<LogNode, DTLog> children, int firstPhase) {
+    int phase = firstPhase;
+    List<LogNode> everyCycleList = new ArrayList<>();
+    Map<Integer, List<List<LogNode>>> groupMap = new TreeMap<>();
+    for (Map.Entry<LogNode, DTLog> entry : children.entrySet()) {
+      int period = getPeriodCycles(entry.getValue());
+      if (period == 1) {
+        everyCycleList.add(entry.getKey());
+        continue;
+      }
+
+      List<List<LogNode>> buckets = groupMap.computeIfAbsent(period, p -> {
+        List<List<LogNode>> list = new ArrayList<>(p);
+        for (int i = 0; i < p; i++) {
+          list.add(new ArrayList<>());
+        }
+        return list;
+      });
+      buckets.get(Math.floorMod(phase++, period))
+             .add(entry.getKey());
+    }
+
+    everyCycle = everyCycleList.toArray(NO_NODES);
+    groups = groupMap.values()
+                     .stream()
+                     .map(buckets -> buckets.stream()
+                                            .map(bucket -> bucket.toArray(NO_NODES))
+                                            .toArray(LogNode[][]::new))
+                     .toArray(LogNode[][][]::new);
+  }
+
+  /**
+   * Logs the children that are due this cycle, or all of them after a
+   * checkpoint, and advances to the next cycle.
+   *
+   * @param value the parent object, or null to log null for each child
+   */
+  void log(Object value) {
+    for (LogNode child : everyCycle) {
+      child.log(value);
+    }
+
+    if (groups.length > 0) {
+      int writerGeneration = LogWriter.getInstance()
+                                      .getHandleGeneration();
+      boolean logAll = writerGeneration != generation;
+      generation = writerGeneration;
+      for (LogNode[][] buckets : groups) {
+        if (logAll) {
+          for (LogNode[] bucket : buckets) {
+            for (LogNode child : bucket) {
+              child.log(value);
+            }
+          }
+        } else {
+          for (LogNode child : buckets[(int) (cycle % buckets.length)]) {
+            child.log(value);
+          }
+        }
+      }
+    }
+    cycle++;
+  }
+
+  private static int getPeriodCycles(DTLog annotation) {
+    if (annotation.rateHz() > 0) {
+      return (int) Math.max(1, Math.round(1 / (annotation.rateHz() * DTRobot.PERIOD_SECONDS)));
+    }
+    return Math.max(1, annotation.periodCycles());
+  }
+}
@@ -0,0 +1,353 @@
+package org.victorrobotics.dtlib.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * The {@link DTLog}-annotated members declared by each class, found once and
+ * shared by every node of that class, along with their accessors.
+ * <p>
+ * The members found are also saved to a cache file, together with their
+ * annotation values and the modification time and size of the jar each class
+ * was loaded from. On later boots, members of classes from an unchanged jar
+ * are looked up by name, without scanning every field and method or parsing
+ * their annotations, which takes most of the time. A class is scanned again if
+ * its jar has changed or a cached member is missing.
+ */
+final class LogSchema {
+  private static final int CACHE_MAGIC   = 0x44545343; // "DTSC"
+  private static final int CACHE_VERSION = 2;
+
+  private static final Entry[] NO_ENTRIES = {};
+
+  private static final long DIRECTORY = Long.MIN_VALUE;
+
+  /** An annotated field or method */
+  static final class Entry {
+    final Member   member;
+    final DTLog    annotation;
+    final String   name;
+    final Class<?> type;
+    final boolean  isStatic;
+
+    private UnaryOperator<Object> getter;
+    private Supplier<Object>      staticGetter;
+    private Object                primitiveGetter;
+    private boolean               primitiveResolved;
+
+    Entry(Member member, DTLog annotation, Class<?> type) {
+      this.member = member;
+      this.annotation = annotation;
+      this.type = type;
+      isStatic = Modifier.isStatic(member.getModifiers());
+
+      String annotatedName = annotation.name();
+      if (isValidName(annotatedName)) {
+        name = annotatedName;
+      } else {
+        name = member instanceof Method ? member.getName() + "()" : member.getName();
+      }
+    }
+
+    UnaryOperator<Object> getter() {
+      if (getter == null) {
+        getter = member instanceof Field field ? LogAccessors.getter(field)
+            : LogAccessors.getter((Method) member);
+      }
+      return getter;
+    }
+
+    Supplier<Object> staticGetter() {
+      if (staticGetter == null) {
+        staticGetter = member instanceof Field field ? LogAccessors.staticGetter(field)
+            : LogAccessors.staticGetter((Method) member);
+      }
+      return staticGetter;
+    }
+
+    /**
+     * @param factory one of the primitive getter factories in
+     *        {@link LogAccessors}, always the same for a given member
+     */
+    @SuppressWarnings("unchecked")
+    <T> T primitiveGetter(Function<Member, T> factory) {
+      if (!primitiveResolved) {
+        primitiveGetter = factory.apply(member);
+        primitiveResolved = true;
+      }
+      return (T) primitiveGetter;
+    }
+  }
+
+  /** Annotation values read from the cache file, in place of parsing them */
+  private record CachedAnnotation(String name, DTLog.Level level, int periodCycles, double rateHz)
+      implements DTLog {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return DTLog.class;
+    }
+  }
+
+  /** Members of a class as read from the cache file */
+  private record CachedClass(long stamp, boolean[] isMethod, String[] names,
+                             DTLog[] annotations) {}
+
+  /** Members of a class, and the stamp of its class file if known */
+  private record ClassSchema(long stamp, Entry[] entries) {}
+
+  private static final Map<Class<?>, ClassSchema> SCHEMAS         = new HashMap<>();
+  private static final Map<String, CachedClass>   CACHED          = new HashMap<>();
+  private static final Map<String, Long>          LOCATION_STAMPS = new HashMap<>();
+
+  private static boolean dirty;
+
+  private LogSchema() {}
+
+  /**
+   * @return the annotated members declared by the class, fields first, which
+   *           have been made accessible
+   */
+  static Entry[] getEntries(Class<?> clazz) {
+    // Classes loaded by the bootstrap loader can't see the annotation
+    if (clazz.getClassLoader() == null) return NO_ENTRIES;
+
+    ClassSchema schema = SCHEMAS.get(clazz);
+    if (schema == null) {
+      schema = resolve(clazz);
+      SCHEMAS.put(clazz, schema);
+    }
+    return schema.entries;
+  }
+
+  private static ClassSchema resolve(Class<?> clazz) {
+    long stamp = getClassStamp(clazz);
+    CachedClass cached = CACHED.get(clazz.getName());
+    if (cached != null && cached.stamp == stamp && stamp != -1) {
+      Entry[] entries = lookup(clazz, cached);
+      if (entries != null) return new ClassSchema(stamp, entries);
+    }
+
+    if (stamp != -1) {
+      dirty = true;
+    }
+    return new ClassSchema(stamp, scan(clazz));
+  }
+
+  private static Entry[] scan(Class<?> clazz) {
+    List<Entry> entries = new ArrayList<>();
+    for (Field field : clazz.getDeclaredFields()) {
+      Entry entry = newEntry(field, field.getAnnotation(DTLog.class));
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    for (Method method : clazz.getDeclaredMethods()) {
+      Entry entry = newEntry(method, method.getAnnotation(DTLog.class));
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    return entries.toArray(NO_ENTRIES);
+  }
+
+  /**
+   * Finds cached members by name, with their cached annotation values.
+   *
+   * @return the entries, or null if any member no longer exists
+   */
+  private static Entry[] lookup(Class<?> clazz, CachedClass cached) {
+    Entry[] entries = new Entry[cached.names.length];
+    try {
+      for (int i = 0; i < entries.length; i++) {
+        Member member = cached.isMethod[i] ? clazz.getDeclaredMethod(cached.names[i])
+            : clazz.getDeclaredField(cached.names[i]);
+        entries[i] = newEntry(member, cached.annotations[i]);
+        if (entries[i] == null) return null;
+      }
+    } catch (NoSuchFieldException | NoSuchMethodException | SecurityException e) {
+      return null;
+    }
+    return entries;
+  }
+
+  private static Entry newEntry(Member member, DTLog annotation) {
+    if (annotation == null) return null;
+
+    AccessibleObject object = (AccessibleObject) member;
+    Class<?> type;
+    if (member instanceof Method method) {
+      if (method.getParameterCount() != 0 || method.getReturnType() == void.class) return null;
+      type = method.getReturnType();
+    } else {
+      type = ((Field) member).getType();
+    }
+
+    if (!object.trySetAccessible()) return null;
+    return new Entry(member, annotation, type);
+  }
+
+  /**
+   * @return a stamp of the jar the class was loaded from, checked once per
+   *           jar, or of the class file itself if it wasn't packaged, or -1
+   *           if neither is a local file
+   */
+  private static long getClassStamp(Class<?> clazz) {
+    CodeSource source = clazz.getProtectionDomain()
+                             .getCodeSource();
+    URL location = source == null ? null : source.getLocation();
+    if (location == null) return -1;
+
+    String key = location.toString();
+    Long stamp = LOCATION_STAMPS.get(key);
+    if (stamp == null) {
+      File file = toFile(location);
+      stamp = file == null ? -1 : file.isDirectory() ? DIRECTORY : getStamp(file);
+      LOCATION_STAMPS.put(key, stamp);
+    }
+    if (stamp != DIRECTORY) return stamp;
+
+    // Classes built but not packaged, such as in simulation
+    return getStamp(new File(toFile(location), clazz.getName()
+                                                    .replace('.', '/')
+        + ".class"));
+  }
+
+  private static File toFile(URL location) {
+    if (!"file".equals(location.getProtocol())) return null;
+
+    try {
+      return new File(location.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the file's modification time combined with its size, or -1 if it
+   *           doesn't exist
+   */
+  private static long getStamp(File file) {
+    long modified = file.lastModified();
+    return modified == 0 ? -1 : 31 * modified + file.length();
+  }
+
+  /**
+   * Reads the cache file, if it exists. Classes resolved afterwards will use
+   * the cached members if their jars haven't changed.
+   */
+  static void load(File file) {
+    if (file == null || !file.isFile()) return;
+
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) return;
+
+      int classCount = in.readInt();
+      for (int i = 0; i < classCount; i++) {
+        String className = in.readUTF();
+        long stamp = in.readLong();
+        int memberCount = in.readInt();
+        boolean[] isMethod = new boolean[memberCount];
+        String[] names = new String[memberCount];
+        DTLog[] annotations = new DTLog[memberCount];
+        for (int j = 0; j < memberCount; j++) {
+          isMethod[j] = in.readBoolean();
+          names[j] = in.readUTF();
+          annotations[j] = new CachedAnnotation(in.readUTF(), DTLog.Level.valueOf(in.readUTF()),
+                                                in.readInt(), in.readDouble());
+        }
+        CACHED.put(className, new CachedClass(stamp, isMethod, names, annotations));
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // Unreadable or partially written, classes will be scanned
+      CACHED.clear();
+    }
+  }
+
+  /**
+   * Writes every class resolved so far to the cache file, if any had to be
+   * scanned. Classes that weren't resolved in this boot are kept.
+   */
+  static void save(File file) {
+    if (file == null || !dirty) return;
+
+    for (Map.Entry<Class<?>, ClassSchema> entry : SCHEMAS.entrySet()) {
+      ClassSchema schema = entry.getValue();
+      if (schema.stamp == -1) continue;
+
+      Entry[] entries = schema.entries;
+      boolean[] isMethod = new boolean[entries.length];
+      String[] names = new String[entries.length];
+      DTLog[] annotations = new DTLog[entries.length];
+      for (int i = 0; i < entries.length; i++) {
+        isMethod[i] = entries[i].member instanceof Method;
+        names[i] = entries[i].member.getName();
+        annotations[i] = entries[i].annotation;
+      }
+      CACHED.put(entry.getKey()
+                      .getName(),
+                 new CachedClass(schema.stamp, isMethod, names, annotations));
+    }
+
+    File temp = new File(file.getPath() + ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        out.writeInt(CACHE_MAGIC);
+        out.writeInt(CACHE_VERSION);
+        out.writeInt(CACHED.size());
+        for (Map.Entry<String, CachedClass> entry : CACHED.entrySet()) {
+          CachedClass cached = entry.getValue();
+          out.writeUTF(entry.getKey());
+          out.writeLong(cached.stamp);
+          out.writeInt(cached.names.length);
+          for (int i = 0; i < cached.names.length; i++) {
+            DTLog annotation = cached.annotations[i];
+            out.writeBoolean(cached.isMethod[i]);
+            out.writeUTF(cached.names[i]);
+            out.writeUTF(annotation.name());
+            out.writeUTF(annotation.level()
+                                   .name());
+            out.writeInt(annotation.periodCycles());
+            out.writeDouble(annotation.rateHz());
+          }
+        }
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+      dirty = false;
+    } catch (IOException e) {
+      DriverStation.reportWarning("Failed to save log schema cache: " + e.getMessage(), false);
+    }
+  }
+
+  static boolean isValidName(String name) {
+    return name != null && name.length() > 0 && name.indexOf('/') == -1;
+  }
+}
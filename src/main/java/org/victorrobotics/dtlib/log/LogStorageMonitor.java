@@ -0,0 +1,89 @@
+package org.victorrobotics.dtlib.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps free space available on the log drive by deleting the oldest log
+ * files. Checks run on a background thread, and their result is cached, so
+ * the robot thread never waits on the file system to find out whether it may
+ * keep writing.
+ */
+final class LogStorageMonitor implements Closeable {
+  private static final long CHECK_INTERVAL_MILLIS = 5000;
+
+  private final File                     directory;
+  private final String                   currentBaseName;
+  private final long                     minFreeBytes;
+  private final ScheduledExecutorService executor;
+
+  private volatile boolean spaceAvailable;
+  private volatile int     deletedFiles;
+
+  /**
+   * Checks the drive immediately, then periodically in the background.
+   *
+   * @param directory the log directory
+   * @param currentBaseName the base name of the log being written, whose
+   *        files are never deleted
+   * @param minFreeBytes the free space to maintain
+   */
+  LogStorageMonitor(File directory, String currentBaseName, long minFreeBytes) {
+    this.directory = directory;
+    this.currentBaseName = currentBaseName;
+    this.minFreeBytes = minFreeBytes;
+
+    check();
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "DTLog Storage Monitor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS,
+                                    TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return whether the drive had enough free space at the last check
+   */
+  boolean isSpaceAvailable() {
+    return spaceAvailable;
+  }
+
+  int getDeletedFileCount() {
+    return deletedFiles;
+  }
+
+  private void check() {
+    if (directory.getUsableSpace() >= minFreeBytes) {
+      spaceAvailable = true;
+      return;
+    }
+
+    File[] logs = directory.listFiles((dir, name) -> (name.endsWith(".dtlog")
+        || name.endsWith(".wpilog") || name.endsWith(".dtsum")) && !name.startsWith(currentBaseName));
+    if (logs != null) {
+      // Names start with the UTC time, so they sort oldest first
+      Arrays.sort(logs);
+      for (File log : logs) {
+        if (log.delete()) {
+          deletedFiles++;
+        }
+        if (directory.getUsableSpace() >= minFreeBytes) {
+          spaceAvailable = true;
+          return;
+        }
+      }
+    }
+    spaceAvailable = false;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,169 @@
+package org.victorrobotics.dtlib.log;
+
+import org.victorrobotics.dtlib.dashboard.DTDash;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * Publishes selected variables of the log tree to DTDash as the robot runs,
+ * under {@code Telemetry} with the same paths as in the log, so that values
+ * don't have to be copied to the dashboard by hand. Variables are selected by
+ * path with {@link RootLogNode#publish(String)}, regardless of log levels.
+ * <p>
+ * Each variable gets a typed publisher when it is selected, and its value is
+ * only sent when it has changed. Every cycle, variables are visited in turn,
+ * continuing from where the last cycle stopped, until a byte budget or a time
+ * slice runs out. Publishing never adds more than the time slice to the loop,
+ * and each variable is visited within a few cycles, however many change.
+ * <p>
+ * Values of custom and geometry types aren't published, nor are null values.
+ */
+public final class LogTelemetry {
+  private static int  byteBudget = 2048;
+  private static long maxNanos   = 500_000;
+
+  private final NetworkTable                        table;
+  private final Set<LogVariable>                    published;
+  private final Map<UnaryOperator<Object>, Integer> parentIndices;
+
+  private TelemetryValue[]        values;
+  private int[]                   parentOf;
+  private UnaryOperator<Object>[] parentGetters;
+  private Object[]                parents;
+  private int[]                   parentCycles;
+  private int                     size;
+  private int                     parentCount;
+
+  private int  next;
+  private int  cycle;
+  private long sentBytes;
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  LogTelemetry() {
+    table = DTDash.getMainTable()
+                  .getSubTable("Telemetry");
+    published = new HashSet<>();
+    parentIndices = new IdentityHashMap<>();
+
+    values = new TelemetryValue[16];
+    parentOf = new int[16];
+    parentGetters = new UnaryOperator[16];
+    parents = new Object[16];
+    parentCycles = new int[16];
+  }
+
+  /**
+   * Sets how much may be published each cycle. Variables left over are
+   * published in the following cycles.
+   *
+   * @param bytesPerCycle the approximate number of bytes to send per cycle,
+   *        2048 by default
+   * @param maxMicros the longest time to spend publishing per cycle, 500 by
+   *        default
+   */
+  public static void configBudget(int bytesPerCycle, long maxMicros) {
+    if (bytesPerCycle <= 0 || maxMicros <= 0) {
+      throw new IllegalArgumentException("budget must be positive");
+    }
+    byteBudget = bytesPerCycle;
+    maxNanos = maxMicros * 1000;
+  }
+
+  /**
+   * Adds a variable, unless it is already published or its type can't be.
+   *
+   * @param variable the variable
+   * @param parentGetter resolves the variable's parent from the robot, once
+   *        per cycle for all of its siblings
+   */
+  void add(LogVariable variable, UnaryOperator<Object> parentGetter) {
+    if (published.contains(variable)) return;
+
+    String path = variable.toString();
+    if (path.startsWith(LogWriter.LOG_PATH_SEPARATOR)) {
+      path = path.substring(1);
+    }
+    TelemetryValue value = variable.newTelemetry(table, path);
+    if (value == null) return;
+    published.add(variable);
+
+    Integer parent = parentIndices.get(parentGetter);
+    if (parent == null) {
+      if (parentCount == parentGetters.length) {
+        parentGetters = Arrays.copyOf(parentGetters, parentCount * 2);
+        parents = Arrays.copyOf(parents, parentCount * 2);
+        parentCycles = Arrays.copyOf(parentCycles, parentCount * 2);
+      }
+      parent = parentCount++;
+      parentGetters[parent] = parentGetter;
+      parentIndices.put(parentGetter, parent);
+    }
+
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+      parentOf = Arrays.copyOf(parentOf, size * 2);
+    }
+    values[size] = value;
+    parentOf[size] = parent;
+    size++;
+  }
+
+  /**
+   * Publishes the variables that changed, within this cycle's budget.
+   */
+  void publish() {
+    if (size == 0) return;
+
+    cycle++;
+    long deadline = System.nanoTime() + maxNanos;
+    int remaining = byteBudget;
+    for (int visited = 0; visited < size; visited++) {
+      int i = next;
+      next = i + 1 == size ? 0 : i + 1;
+
+      Object parent = getParent(parentOf[i]);
+      if (parent != null) {
+        remaining -= values[i].publish(parent);
+      }
+      if (remaining <= 0 || System.nanoTime() >= deadline) break;
+    }
+    sentBytes += byteBudget - remaining;
+  }
+
+  /**
+   * @return the parent object, resolved at most once per cycle
+   */
+  private Object getParent(int index) {
+    if (parentCycles[index] != cycle) {
+      parentCycles[index] = cycle;
+      try {
+        parents[index] = parentGetters[index].apply(null);
+      } catch (RuntimeException e) {
+        // Reported by the log tree
+        parents[index] = null;
+      }
+    }
+    return parents[index];
+  }
+
+  /**
+   * @return the number of variables published
+   */
+  public int getVariableCount() {
+    return size;
+  }
+
+  /**
+   * @return the approximate number of bytes sent since the robot started
+   */
+  public long getSentBytes() {
+    return sentBytes;
+  }
+}
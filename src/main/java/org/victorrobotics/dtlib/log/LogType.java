@@ -16,6 +16,10 @@ public class LogType {
 
   public <T> LogType(Consumer<T> encoder, BiPredicate<T, T> equals, int id,
       Set<Class<? extends T>> clazzes) {
+    // Other identifiers are reserved for control records and handles
+    if (id < 0x20 || id > 0xFF) {
+      throw new IllegalArgumentException("type ID must be from 0x20 to 0xFF");
+    }
     this.writer = encoder;
     this.equals = equals;
     this.id = id;
@@ -1,37 +1,125 @@
 package org.victorrobotics.dtlib.log;
 
-public class LogVariable {
-  private final LogType type;
-  private final String    path;
+import edu.wpi.first.networktables.NetworkTable;
 
-  private Object prevValue;
-  private int    handle;
+/**
+ * A single loggable value, assigned a handle in the log file when it is first
+ * written. Implementations read their value from a parent object, compare it
+ * to the last value written, and encode it only when it has changed.
+ */
+public abstract class LogVariable {
+  private final int    typeID;
+  private final String path;
 
-  LogVariable(LogType type, String path) {
-    this.type = type;
+  private int     handle;
+  private int     generation;
+  private boolean resend;
+
+  LogVariable(int typeID, String path) {
+    this.typeID = typeID;
     this.path = path;
     this.handle = -1;
   }
 
-  @SuppressWarnings("unchecked")
-  void logValue(Object value) {
-    if (type.equals.test(prevValue, value)) return;
+  /**
+   * Reads this variable's value from its parent and logs it if it has changed.
+   *
+   * @param parent the object containing this variable
+   */
+  abstract void log(Object parent);
+
+  /**
+   * Logs that this variable has no value, because its parent is null.
+   */
+  abstract void logNull();
+
+  /**
+   * Checks whether the writer has reset its variable handles, at a new segment
+   * or checkpoint, since this variable was last written. If so, the variable
+   * will be redeclared, and its current value must be written even if it
+   * hasn't changed. The same applies after its last value was dropped.
+   *
+   * @param writer the log writer
+   * @return whether the value must be written
+   */
+  final boolean isHandleReset(LogWriter writer) {
+    int writerGeneration = writer.getHandleGeneration();
+    if (generation == writerGeneration) {
+      boolean mustWrite = resend;
+      resend = false;
+      return mustWrite;
+    }
+
+    generation = writerGeneration;
+    handle = -1;
+    resend = false;
+    return true;
+  }
+
+  /**
+   * Checks whether the record just written was dropped by the writer. If so,
+   * the caller must keep the state the reader last saw, and the value will be
+   * written again even if it doesn't change, since a reader starting from the
+   * latest checkpoint may not have seen it at all.
+   *
+   * @param writer the log writer
+   * @return whether the record was dropped
+   */
+  final boolean isDropped(LogWriter writer) {
+    if (!writer.isDropping()) return false;
+
+    resend = true;
+    return true;
+  }
 
+  /**
+   * Begins a value record for this variable, declaring it first if needed. The
+   * caller must then write the encoded value.
+   *
+   * @param writer the log writer
+   * @return the writer
+   */
+  final LogWriter writeHandle(LogWriter writer) {
     if (handle < 0) {
-      handle = LogWriter.getInstance()
-                          .declareNewVariableHandle(type.id, path);
+      declare(writer);
     }
+    return writer.writeIdentifier(handle);
+  }
 
-    if (value == null) {
-      LogWriter.getInstance()
-                 .writeShort(0x0000)
-                 .writeShort(handle);
-    } else {
-      LogWriter.getInstance()
-                 .writeShort(handle);
-      type.writer.accept(value);
+  /**
+   * Writes a record setting this variable to a null state, declaring it first
+   * if needed.
+   *
+   * @param writer the log writer
+   */
+  final void writeNull(LogWriter writer) {
+    if (handle < 0) {
+      declare(writer);
     }
-    prevValue = value;
+    writer.writeNullRecord(handle);
+  }
+
+  private void declare(LogWriter writer) {
+    handle = writer.declareNewVariableHandle(typeID, path);
+    declared();
+  }
+
+  /**
+   * Called when this variable is declared, before its first value is written.
+   * Encodings that depend on previously written values must restart here, as
+   * a reader decoding from the latest segment or checkpoint has not seen them.
+   */
+  void declared() {}
+
+  /**
+   * Creates a publisher for this variable's value, for {@link LogTelemetry}.
+   *
+   * @param table the table to publish in
+   * @param name the topic name
+   * @return the value, or null if this variable's type can't be published
+   */
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return null;
   }
 
   @Override
@@ -1,11 +1,9 @@
 package org.victorrobotics.dtlib.log;
 
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.nio.file.StandardOpenOption.WRITE;
-
 import org.victorrobotics.dtlib.DTLibInfo;
 import org.victorrobotics.dtlib.DTRobot;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.LogSummary;
 
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
@@ -14,15 +12,19 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
-import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import edu.wpi.first.wpilibj.DriverStation;
@@ -36,8 +38,8 @@ public final class LogWriter implements Closeable, Flushable {
       DateTimeFormatter.ofPattern("uuuu-MM-dd_HH-mm-ss")
                        .withZone(ZoneId.of("Z"));
 
-  private static final String LOG_DIRECTORY      = "/U/dtlog";
   private static final byte[] HEADER_MAGIC_BYTES = "DTLib Logger".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] INDEX_MAGIC_BYTES  = "DTix".getBytes(StandardCharsets.UTF_8);
 
   @SuppressWarnings("java:S1764") // XOR identical elements
   private static final int HEADER_MAGIC_XOR =
@@ -49,37 +51,217 @@ public final class LogWriter implements Closeable, Flushable {
   // @format:on
 
   private static final int BUFFER_SIZE_BYTES = 64 * 1024;
+  // Index offsets are 4 bytes, leave room for the cycle that crosses the limit
+  private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+  private static final int MAX_DICTIONARY_SIZE  = 1024;
+  private static final int RECENT_MESSAGES      = 256;
+  private static final int MAX_TRACE_DEPTH      = 8;
+  private static final int MAX_PENDING_MESSAGES = 1024;
+  private static final int MAX_WRITE_ATTEMPTS   = 8;
+
+  static final int HEADER_LENGTH = 36;
+
+  /** Header flag: doubles may be XOR-encoded, and timestamps may repeat */
+  static final int FORMAT_XOR_DOUBLES      = 0x00000001;
+  /** Header flag: data after the header is divided into compressed frames */
+  static final int FORMAT_BLOCK_COMPRESSED = 0x00000002;
+  /** Header flag: float[] elements are 4 bytes, rather than 8 */
+  static final int FORMAT_FLOAT_ARRAYS     = 0x00000004;
 
   private static LogWriter INSTANCE;
 
+  private static int            asyncBufferCount;
+  private static OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private static int            mappedSegmentSize;
+  private static int            formatFlags = FORMAT_FLOAT_ARRAYS;
+  private static int            checkpointInterval;
+  private static long           maxSegmentBytes;
+  private static long           maxSegmentMillis;
+  private static long           minFreeBytes;
+  private static int            compressionLevel;
+  private static boolean        wpilogTee;
+  private static boolean        summaryEnabled;
+  private static File           logDirectory = new File("/U/dtlog");
+
+  // Robot time and team number, replaced when writing without a robot
+  private static LongSupplier clock      = DTRobot::currentTimeMicros;
+  private static IntSupplier  teamNumber = DTRobot::getTeamNumber;
+  private static boolean      detached;
+
   static final Map<Class<?>, LogType> LOG_TYPES = new HashMap<>();
 
   static {
     BuiltinLogTypes.load();
   }
 
-  private final File        file;
-  private final FileChannel channel;
-  private final ByteBuffer  buffer;
-  private final BitSet      bitSet;
-  private final DTLog.Level level;
+  private final LogOutput         output;
+  private final LogWriterThread   ioThread;
+  private final LogStorageMonitor storage;
+  private final long              segmentLimit;
+  private final int               minFlushBytes;
+  private final File              summarizedLog;
+
+  private Thread summaryThread;
+
+  private volatile DTLog.Level level;
+
+  private ByteBuffer buffer;
 
   private long lastTimestamp;
+  private long lastTimeIncrement;
   private int  nextVarHandle = 0x0100;
+  private int  nextMessageID;
+  private int  modeIdentifier = -1;
+
+  private final Map<String, DictionaryEntry> messages;
+  private final String[]                     recentMessages;
+  private final Map<Long, TraceEntry>        traces;
+
+  private final Thread                ownerThread;
+  private final Queue<PendingMessage> pendingMessages;
+  private final AtomicInteger         pendingCount;
+
+  private int     handleGeneration;
+  private long    segmentBytes;
+  private long    segmentStartTime;
+  private int     segmentPrefix;
+  private boolean suspended;
+
+  private long    lastCheckpoint;
+  private long[]  indexTimestamps;
+  private long[]  indexOffsets;
+  private int     indexSize;
+  private boolean indexWritten;
+
+  private int bitBuffer;
+  private int bitCount;
+
+  private int     recordStart = -1;
+  private boolean recordDroppable;
+  private boolean dropping;
+
+  private long bytesWritten;
+  private long stallCount;
+  private long droppedRecords;
+  private long failedWrites;
 
   private LogWriter(DTLog.Level logLevel) throws IOException {
-    Instant now = Clock.systemUTC()
-                       .instant();
-    lastTimestamp = DTRobot.currentTimeMicros() / 1000;
-    long startTimeMillis = now.toEpochMilli();
-    String name = "LOG_" + TIME_FORMATTER.format(now) + ".dtlog";
-
-    file = new File(LOG_DIRECTORY, name);
-    channel = FileChannel.open(file.toPath(), WRITE, CREATE, TRUNCATE_EXISTING);
-    buffer = ByteBuffer.allocateDirect(BUFFER_SIZE_BYTES);
-    bitSet = new BitSet();
+    lastTimestamp = clock.getAsLong() / 1000;
+    String baseName = "LOG_" + TIME_FORMATTER.format(Clock.systemUTC()
+                                                          .instant());
+
+    File directory = logDirectory;
+    // Make room before opening the new log
+    storage = minFreeBytes > 0 ? new LogStorageMonitor(directory, baseName, minFreeBytes) : null;
+    LogOutput fileOutput;
+    if (mappedSegmentSize > 0) {
+      fileOutput = new MappedLogOutput(directory, baseName, mappedSegmentSize, BUFFER_SIZE_BYTES);
+    } else {
+      fileOutput = new FileLogOutput(directory, baseName);
+    }
+    if (compressionLevel > 0) {
+      fileOutput = new CompressedLogOutput(fileOutput, compressionLevel, BUFFER_SIZE_BYTES);
+      // Small blocks compress poorly, let data accumulate
+      minFlushBytes = BUFFER_SIZE_BYTES / 2;
+    } else {
+      minFlushBytes = 0;
+    }
+    // Converted before compression
+    output = wpilogTee ? new WpilogTeeOutput(fileOutput, directory, baseName) : fileOutput;
+    summarizedLog = summaryEnabled ? new File(directory, LogOutput.getSegmentName(baseName, 0))
+        : null;
+    segmentLimit = Math.min(maxSegmentBytes > 0 ? maxSegmentBytes : MAX_SEGMENT_BYTES,
+                            Math.min(MAX_SEGMENT_BYTES, output.getSegmentLimit()));
+
+    if (asyncBufferCount > 0) {
+      ioThread = new LogWriterThread(output, asyncBufferCount, BUFFER_SIZE_BYTES);
+      ioThread.start();
+      buffer = ioThread.takeFree();
+    } else {
+      ioThread = null;
+      buffer = ByteBuffer.allocateDirect(BUFFER_SIZE_BYTES);
+    }
     level = logLevel;
+    messages = new HashMap<>();
+    recentMessages = new String[RECENT_MESSAGES];
+    traces = new HashMap<>();
+    ownerThread = Thread.currentThread();
+    pendingMessages = new ConcurrentLinkedQueue<>();
+    pendingCount = new AtomicInteger();
+    indexTimestamps = new long[64];
+    indexOffsets = new long[64];
+
+    startSegment();
+    flush();
+  }
+
+  private void startSegment() {
+    writeHeader();
+    indexSize = 0;
+    indexWritten = false;
+    addIndexEntry(segmentBytes + buffer.position(), lastTimestamp);
+    lastCheckpoint = lastTimestamp;
+    segmentStartTime = lastTimestamp;
+
+    // Each segment must be decodable on its own
+    writeIdentifier(0x02).writeShort((int) (lastTimestamp >> 32))
+                         .writeInt((int) lastTimestamp);
+    lastTimeIncrement = -1;
+    if (modeIdentifier >= 0) {
+      writeIdentifier(modeIdentifier);
+    }
+    segmentPrefix = buffer.position();
+  }
+
+  /**
+   * Writes a checkpoint, from which a reader can begin decoding. Variable
+   * handles are reset, so every variable is redeclared with its current value
+   * as it is next logged.
+   */
+  private void writeCheckpoint(long timestamp) {
+    writeIdentifier(0x0D);
+    long offset = segmentBytes + recordStart;
+    writeShort((int) (timestamp >> 32)).writeInt((int) timestamp);
+    addIndexEntry(offset, timestamp);
+
+    lastCheckpoint = timestamp;
+    lastTimeIncrement = -1;
+    nextVarHandle = 0x0100;
+    nextMessageID = 0;
+    handleGeneration++;
+    if (modeIdentifier >= 0) {
+      writeIdentifier(modeIdentifier);
+    }
+  }
+
+  private void addIndexEntry(long offset, long timestamp) {
+    if (indexSize == indexOffsets.length) {
+      indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+      indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+    }
+    indexOffsets[indexSize] = offset;
+    indexTimestamps[indexSize] = timestamp;
+    indexSize++;
+  }
+
+  /**
+   * Ends the current segment with an index of its checkpoints, so readers can
+   * seek without decoding the whole file.
+   */
+  private void writeIndex() {
+    if (indexWritten) return;
+
+    writeIdentifier(0x0E).writeInt(indexSize);
+    for (int i = 0; i < indexSize; i++) {
+      writeShort((int) (indexTimestamps[i] >> 32)).writeInt((int) indexTimestamps[i])
+                                                  .writeInt((int) indexOffsets[i]);
+    }
+    writeInt(indexSize).writeBytes(INDEX_MAGIC_BYTES);
+  }
 
+  private void writeHeader() {
+    recordDroppable = false;
     writeBytes(HEADER_MAGIC_BYTES);
     int checksum = HEADER_MAGIC_XOR;
 
@@ -97,206 +279,310 @@ public final class LogWriter implements Closeable, Flushable {
     writeInt(wpilibVersion);
     checksum ^= wpilibVersion;
 
-    long team = DTRobot.getTeamNumber();
+    long team = teamNumber.getAsInt();
+    long startTimeMillis = Clock.systemUTC()
+                                .millis();
     writeLong((team << 48) | startTimeMillis);
     checksum ^= team << 16;
-    checksum ^= (int) ((startTimeMillis >> 32) | startTimeMillis);
+    checksum ^= (int) (startTimeMillis >> 32) ^ (int) startTimeMillis;
+
+    writeInt(formatFlags);
+    checksum ^= formatFlags;
     writeInt(checksum);
+  }
 
-    flush();
+  /**
+   * Begins a new record in the log stream by writing its 2-byte identifier.
+   * Value records, which begin with a variable handle, can be discarded as a
+   * whole when an asynchronous writer is configured to drop data under load.
+   *
+   * @param identifier the record identifier
+   * @return this writer
+   */
+  public LogWriter writeIdentifier(int identifier) {
+    return beginRecord(identifier, identifier >= 0x0100);
+  }
+
+  /**
+   * Writes a record setting a variable to null, which can be discarded like
+   * its value records.
+   *
+   * @param handle the variable's handle
+   * @return this writer
+   */
+  LogWriter writeNullRecord(int handle) {
+    return beginRecord(0x0000, true).writeShort(handle);
+  }
+
+  private LogWriter beginRecord(int identifier, boolean droppable) {
+    bitCount = 0;
+    recordStart = buffer.position();
+    recordDroppable = droppable;
+    if (dropping && recordDroppable) {
+      droppedRecords++;
+      return this;
+    }
+
+    if (checkBufferRemaining(2)) {
+      recordStart = buffer.position();
+      buffer.putShort((short) identifier);
+      if (identifier >= 0x03 && identifier <= 0x07) {
+        modeIdentifier = identifier;
+      }
+    }
+    return this;
   }
 
   public LogWriter writeByte(int b) {
-    checkBufferRemaining(1);
-    buffer.put((byte) b);
+    if (checkBufferRemaining(1)) {
+      buffer.put((byte) b);
+    }
     return this;
   }
 
   public LogWriter writeShort(int s) {
-    checkBufferRemaining(2);
-    buffer.putShort((short) s);
+    if (checkBufferRemaining(2)) {
+      buffer.putShort((short) s);
+    }
     return this;
   }
 
   public LogWriter writeInt(int i) {
-    checkBufferRemaining(4);
-    buffer.putInt(i);
+    if (checkBufferRemaining(4)) {
+      buffer.putInt(i);
+    }
     return this;
   }
 
   public LogWriter writeLong(long l) {
-    checkBufferRemaining(8);
-    buffer.putLong(l);
+    if (checkBufferRemaining(8)) {
+      buffer.putLong(l);
+    }
     return this;
   }
 
   public LogWriter writeDouble(double d) {
-    checkBufferRemaining(8);
-    buffer.putDouble(d);
+    if (checkBufferRemaining(8)) {
+      buffer.putDouble(d);
+    }
     return this;
   }
 
   public LogWriter writeFloat(float f) {
-    checkBufferRemaining(4);
-    buffer.putFloat(f);
+    if (checkBufferRemaining(4)) {
+      buffer.putFloat(f);
+    }
     return this;
   }
 
   public LogWriter writeChar(char c) {
-    checkBufferRemaining(2);
-    buffer.putChar(c);
+    if (checkBufferRemaining(2)) {
+      buffer.putChar(c);
+    }
     return this;
   }
 
   @SuppressWarnings("java:S2301") // boolean "flag" as method parameter
   public LogWriter writeBoolean(boolean b) {
-    checkBufferRemaining(1);
-    buffer.put((byte) (b ? 1 : 0));
+    if (checkBufferRemaining(1)) {
+      buffer.put((byte) (b ? 1 : 0));
+    }
     return this;
   }
 
   public LogWriter writeBytes(byte[] b) {
-    checkBufferRemaining(b.length);
-    buffer.put(b);
+    int offset = 0;
+    while (offset < b.length) {
+      int count = reserveElements(b.length - offset, Byte.BYTES);
+      if (count == 0) break;
+
+      buffer.put(b, offset, count);
+      offset += count;
+    }
     return this;
   }
 
   public LogWriter writeByteArray(byte[] b) {
     checkWriteArrayLength(b.length);
-    checkBufferRemaining(b.length);
-    buffer.put(b);
-    return this;
+    return writeBytes(b);
   }
 
   public LogWriter writeShorts(short[] s) {
-    checkBufferRemaining(s.length * 2);
-    for (int i = 0; i < s.length; i++) {
-      buffer.putShort(s[i]);
+    int offset = 0;
+    while (offset < s.length) {
+      int count = reserveElements(s.length - offset, Short.BYTES);
+      if (count == 0) break;
+
+      buffer.asShortBuffer()
+            .put(s, offset, count);
+      buffer.position(buffer.position() + count * Short.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeShortArray(short[] s) {
     checkWriteArrayLength(s.length);
-    checkBufferRemaining(s.length * 2);
-    for (int i = 0; i < s.length; i++) {
-      buffer.putShort(s[i]);
-    }
-    return this;
+    return writeShorts(s);
   }
 
   public LogWriter writeInts(int[] i) {
-    checkBufferRemaining(i.length * 4);
-    for (int j = 0; j < i.length; j++) {
-      buffer.putInt(i[j]);
+    int offset = 0;
+    while (offset < i.length) {
+      int count = reserveElements(i.length - offset, Integer.BYTES);
+      if (count == 0) break;
+
+      buffer.asIntBuffer()
+            .put(i, offset, count);
+      buffer.position(buffer.position() + count * Integer.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeIntArray(int[] i) {
     checkWriteArrayLength(i.length);
-    checkBufferRemaining(i.length * 4);
-    for (int j = 0; j < i.length; j++) {
-      buffer.putInt(i[j]);
-    }
-    return this;
+    return writeInts(i);
   }
 
   public LogWriter writeLongs(long[] l) {
-    checkBufferRemaining(l.length * 8);
-    for (int i = 0; i < l.length; i++) {
-      buffer.putLong(l[i]);
+    int offset = 0;
+    while (offset < l.length) {
+      int count = reserveElements(l.length - offset, Long.BYTES);
+      if (count == 0) break;
+
+      buffer.asLongBuffer()
+            .put(l, offset, count);
+      buffer.position(buffer.position() + count * Long.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeLongArray(long[] l) {
     checkWriteArrayLength(l.length);
-    checkBufferRemaining(l.length * 8);
-    for (int i = 0; i < l.length; i++) {
-      buffer.putLong(l[i]);
-    }
-    return this;
+    return writeLongs(l);
   }
 
   public LogWriter writeDoubles(double[] d) {
-    checkBufferRemaining(d.length * 8);
-    for (int i = 0; i < d.length; i++) {
-      buffer.putDouble(d[i]);
+    int offset = 0;
+    while (offset < d.length) {
+      int count = reserveElements(d.length - offset, Double.BYTES);
+      if (count == 0) break;
+
+      buffer.asDoubleBuffer()
+            .put(d, offset, count);
+      buffer.position(buffer.position() + count * Double.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeDoubleArray(double[] d) {
     checkWriteArrayLength(d.length);
-    checkBufferRemaining(d.length * 8);
-    for (int i = 0; i < d.length; i++) {
-      buffer.putDouble(d[i]);
-    }
-    return this;
+    return writeDoubles(d);
   }
 
   public LogWriter writeFloats(float[] f) {
-    checkBufferRemaining(f.length * 4);
-    for (int i = 0; i < f.length; i++) {
-      buffer.putDouble(f[i]);
+    int offset = 0;
+    while (offset < f.length) {
+      int count = reserveElements(f.length - offset, Float.BYTES);
+      if (count == 0) break;
+
+      buffer.asFloatBuffer()
+            .put(f, offset, count);
+      buffer.position(buffer.position() + count * Float.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeFloatArray(float[] f) {
     checkWriteArrayLength(f.length);
-    checkBufferRemaining(f.length * 4);
-    for (int i = 0; i < f.length; i++) {
-      buffer.putDouble(f[i]);
-    }
-    return this;
+    return writeFloats(f);
   }
 
   public LogWriter writeChars(char[] c) {
-    checkBufferRemaining(c.length * 2);
-    for (int i = 0; i < c.length; i++) {
-      buffer.putChar(c[i]);
+    int offset = 0;
+    while (offset < c.length) {
+      int count = reserveElements(c.length - offset, Character.BYTES);
+      if (count == 0) break;
+
+      buffer.asCharBuffer()
+            .put(c, offset, count);
+      buffer.position(buffer.position() + count * Character.BYTES);
+      offset += count;
     }
     return this;
   }
 
   public LogWriter writeCharArray(char[] c) {
     checkWriteArrayLength(c.length);
-    checkBufferRemaining(c.length * 2);
-    for (int i = 0; i < c.length; i++) {
-      buffer.putChar(c[i]);
-    }
-    return this;
+    return writeChars(c);
   }
 
+  /**
+   * Writes booleans as bits, 8 to a byte with the first in the lowest bit.
+   *
+   * @param b the booleans
+   * @return this writer
+   */
   public LogWriter writeBooleans(boolean[] b) {
-    int len = (b.length + 7) / 8;
-    checkBufferRemaining(len);
-    byte[] data = booleansToBytes(b);
-    buffer.put(data, 0, len);
+    for (int i = 0; i < b.length; i += 8) {
+      int bits = 0;
+      int end = Math.min(i + 8, b.length);
+      for (int j = i; j < end; j++) {
+        if (b[j]) {
+          bits |= 1 << (j - i);
+        }
+      }
+      writeByte(bits);
+    }
     return this;
   }
 
   public LogWriter writeBooleanArray(boolean[] b) {
-    int len = (b.length + 7) / 8;
     checkWriteArrayLength(b.length);
-    checkBufferRemaining(len);
-    byte[] bytes = booleansToBytes(b);
-    buffer.put(bytes, 0, len);
-    return this;
+    return writeBooleans(b);
   }
 
-  private byte[] booleansToBytes(boolean[] b) {
-    bitSet.set(b.length - 1); // Ensure capacity
-    bitSet.clear();
-
-    for (int i = 0; i < b.length; i++) {
-      if (b[i]) {
-        bitSet.set(i);
+  /**
+   * Writes the lowest bits of a value, most significant first. Bits are packed
+   * into bytes across calls, and the final partial byte of a record must be
+   * written with {@link #alignBits()}.
+   *
+   * @param value the bits to write, right-aligned
+   * @param count the number of bits, from 0 to 64
+   * @return this writer
+   */
+  public LogWriter writeBits(long value, int count) {
+    while (count > 0) {
+      int n = Math.min(count, 8 - bitCount);
+      count -= n;
+      bitBuffer = (bitBuffer << n) | (int) ((value >>> count) & ((1 << n) - 1));
+      bitCount += n;
+      if (bitCount == 8) {
+        writeByte(bitBuffer);
+        bitBuffer = 0;
+        bitCount = 0;
       }
     }
-    return bitSet.toByteArray();
+    return this;
+  }
+
+  /**
+   * Pads any partially written byte from {@link #writeBits(long, int)} with
+   * zeros and writes it.
+   *
+   * @return this writer
+   */
+  public LogWriter alignBits() {
+    if (bitCount > 0) {
+      writeByte(bitBuffer << (8 - bitCount));
+      bitBuffer = 0;
+      bitCount = 0;
+    }
+    return this;
   }
 
   public LogWriter writeStringUTF8(String s) {
@@ -307,39 +593,322 @@ public final class LogWriter implements Closeable, Flushable {
 
   @Override
   public void close() throws IOException {
-    channel.close();
+    writePendingMessages();
+    if (suspended) {
+      discardBuffer();
+    }
+    writeIndex();
+    indexWritten = true;
+    if (ioThread != null) {
+      handOff(ioThread.takeFree());
+      ioThread.shutdown();
+    } else {
+      flush();
+    }
+    output.close();
+    if (storage != null) {
+      storage.close();
+    }
+    if (summarizedLog != null) {
+      summaryThread = new Thread(this::writeSummary, "DTLog Summary");
+      summaryThread.setDaemon(true);
+      summaryThread.start();
+    }
+  }
+
+  /**
+   * Summarizes the closed log, off the robot thread since the whole log is
+   * read again. A failure doesn't affect the log, whose summary is then built
+   * when it is next opened with {@link LogSummary#forLog(java.nio.file.Path)}.
+   */
+  private void writeSummary() {
+    try {
+      LogSummary.build(LogReader.open(summarizedLog.toPath()),
+                       LogSummary.getSummaryPath(summarizedLog.toPath()));
+    } catch (IOException | RuntimeException e) {
+      printMessage("Failed to summarize " + summarizedLog.getName() + ": " + e, DTLog.Level.WARN);
+    }
+  }
+
+  /**
+   * Waits for the summary started when the log was closed to be written.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  void awaitSummary() throws InterruptedException {
+    if (summaryThread != null) {
+      summaryThread.join();
+    }
   }
 
   @Override
   public void flush() throws IOException {
-    buffer.flip();
-    channel.write(buffer);
-    buffer.compact();
+    if (ioThread != null) {
+      handOff(ioThread.takeFree());
+      return;
+    }
+
+    if (!writeBuffer()) {
+      throw new IOException("failed to write log data");
+    }
   }
 
+  /**
+   * Attempts to flush buffered data without waiting. In synchronous mode, this
+   * writes to the file directly. In asynchronous mode, the buffer is handed off
+   * to the I/O thread if a free buffer is available, otherwise data will
+   * continue to accumulate until one is.
+   * <p>
+   * This also marks the end of a robot cycle: records discarded under the
+   * {@link OverflowPolicy#DROP DROP} policy will resume being written, and a
+   * new segment is started if the current one has reached its configured
+   * size or duration and the output is ready to switch files. If the drive is
+   * low on space, logged data is discarded here until space is freed.
+   *
+   * @return whether any data was flushed
+   */
   public boolean tryFlush() {
+    dropping = false;
+
+    if ((storage != null || suspended) && checkSuspended()) return false;
+
+    if (ioThread != null && ioThread.takeSegmentFailure()) {
+      restartSegment();
+      return false;
+    }
+
+    if ((segmentBytes + buffer.position() >= segmentLimit
+        || maxSegmentMillis > 0 && lastTimestamp - segmentStartTime >= maxSegmentMillis)
+        && output.isNextSegmentReady()) {
+      return nextSegment();
+    }
+
+    if (buffer.position() < minFlushBytes) return false;
+
+    if (ioThread != null) {
+      if (buffer.position() == 0) return false;
+
+      ByteBuffer next = ioThread.pollFree();
+      if (next == null) return false;
+
+      handOff(next);
+      return true;
+    }
+
+    return writeBuffer();
+  }
+
+  /**
+   * Suspends writing while the drive is low on space, discarding each cycle's
+   * data, and resumes with a checkpoint once space is available again. Writing
+   * suspended after a failed write resumes at the end of the cycle.
+   *
+   * @return whether writing is suspended
+   */
+  private boolean checkSuspended() {
+    boolean spaceAvailable = storage == null || storage.isSpaceAvailable();
+    if (!suspended) {
+      if (spaceAvailable) return false;
+
+      DriverStation.reportWarning("Log drive is full, logging suspended", false);
+      suspended = true;
+    }
+
+    discardBuffer();
+    if (!spaceAvailable) return true;
+
+    // Variables were declared in discarded data, declare them again
+    suspended = false;
+    writeCheckpoint(lastTimestamp);
+    return false;
+  }
+
+  private void discardBuffer() {
+    // Keep the header of a segment that hasn't been written yet
+    buffer.clear()
+          .position(segmentPrefix);
+    recordStart = -1;
+    bitCount = 0;
+
+    // Forget checkpoints that were never written
+    while (indexSize > 1 && indexOffsets[indexSize - 1] >= segmentBytes) {
+      indexSize--;
+    }
+  }
+
+  private boolean writeBuffer() {
     int bufferPos = buffer.position();
     buffer.flip();
+    Object event = FlightRecorderEvents.beginWrite();
     try {
-      channel.write(buffer);
+      output.write(buffer);
+      FlightRecorderEvents.endWrite(event, bufferPos, false);
     } catch (IOException e) {
       buffer.position(bufferPos);
       buffer.limit(buffer.capacity());
       return false;
     }
-    buffer.compact();
+    buffer.clear();
+    bytesWritten += bufferPos;
+    segmentBytes += bufferPos;
+    segmentPrefix = 0;
+    recordStart = -1;
+    return true;
+  }
+
+  private void handOff(ByteBuffer next) {
+    segmentBytes += buffer.position();
+    ioThread.submit(buffer);
+    buffer = next;
+    segmentPrefix = 0;
+    recordStart = -1;
+  }
+
+  /**
+   * Writes out all buffered data and switches the output to a new segment
+   * file, which starts with its own header. Variables are redeclared as they
+   * are next logged, so each segment can be decoded independently.
+   */
+  private boolean nextSegment() {
+    if (ioThread != null) {
+      ByteBuffer next = ioThread.pollFree();
+      if (next == null) return false; // Try again next cycle
+
+      writeIndex();
+      handOff(next);
+      ioThread.submitNextSegment();
+    } else {
+      // Write out the segment's data first, so the index can be taken back out
+      if (!writeBuffer()) return false;
+
+      long dataBytes = segmentBytes;
+      writeIndex();
+      if (!writeBuffer()) {
+        if (segmentBytes == dataBytes) {
+          buffer.position(0);
+        }
+        return false;
+      }
+
+      try {
+        output.nextSegment();
+      } catch (IOException e) {
+        // The segment continues, and readers skip the index inside it
+        return false;
+      }
+    }
+
+    beginSegment();
     return true;
   }
 
+  /**
+   * Tries the switch to a new segment again after the I/O thread failed it.
+   * Data logged since was discarded there, so the previous segment still
+   * ends with its index, and the new one must start over with its header.
+   */
+  private void restartSegment() {
+    buffer.clear();
+    recordStart = -1;
+    bitCount = 0;
+    ioThread.submitNextSegment();
+    beginSegment();
+  }
+
+  private void beginSegment() {
+    handleGeneration++;
+    segmentBytes = 0;
+    nextVarHandle = 0x0100;
+    nextMessageID = 0;
+    startSegment();
+  }
+
+  /**
+   * @return a counter incremented whenever variable handles are reset, at the
+   *           start of a segment or a checkpoint
+   */
+  int getHandleGeneration() {
+    return handleGeneration;
+  }
+
+  /**
+   * @return whether value records are currently being discarded under the
+   *           {@link OverflowPolicy#DROP DROP} policy, including the one just
+   *           written
+   */
+  boolean isDropping() {
+    return dropping;
+  }
+
+  /**
+   * Makes room in the buffer for some of the remaining elements of an array,
+   * which may be larger than the buffer itself. Arrays are written in chunks,
+   * handing off or writing out the buffer between them.
+   *
+   * @param count the number of elements left to write
+   * @param size the size of each element in bytes
+   * @return the number of elements that fit in the buffer, or 0 if the rest of
+   *           the array is being discarded
+   */
+  private int reserveElements(int count, int size) {
+    if (dropping || buffer.remaining() < size) {
+      if (!makeBufferRemaining(size)) return 0;
+    }
+    return Math.min(count, buffer.remaining() / size);
+  }
+
   private boolean checkBufferRemaining(int newDataLength) {
-    if (buffer.capacity() < newDataLength) {
-      tryFlush();
-      return false;
+    if (!dropping && buffer.remaining() >= newDataLength) return true;
+    return makeBufferRemaining(newDataLength);
+  }
+
+  private boolean makeBufferRemaining(int newDataLength) {
+    if (suspended) {
+      discardBuffer();
+      return buffer.remaining() >= newDataLength;
+    }
+
+    if (dropping) {
+      if (recordDroppable) return false;
+
+      // Essential records (declarations, timestamps) are never dropped, but
+      // values keep being dropped until the cycle ends
+      if (buffer.remaining() >= newDataLength) return true;
     }
 
-    while (buffer.remaining() < newDataLength) {
-      tryFlush();
+    if (ioThread == null) {
+      // Segments only roll between cycles, never in the middle of a record
+      stallCount++;
+      for (int attempt = 1; !writeBuffer(); attempt++) {
+        if (attempt == MAX_WRITE_ATTEMPTS) {
+          // Drive removed or failed, discard the cycle's data rather than
+          // stall the robot thread indefinitely
+          if (failedWrites++ == 0) {
+            DriverStation.reportWarning("Failed to write log data, logging suspended", false);
+          }
+          suspended = true;
+          discardBuffer();
+          return buffer.remaining() >= newDataLength;
+        }
+        Thread.onSpinWait();
+      }
+      return true;
+    }
+
+    ByteBuffer next = ioThread.pollFree();
+    if (next == null) {
+      if (overflowPolicy == OverflowPolicy.DROP && recordDroppable && recordStart >= 0) {
+        // Discard the partial record and everything else until the next cycle
+        buffer.position(recordStart);
+        dropping = true;
+        droppedRecords++;
+        return false;
+      }
+
+      stallCount++;
+      next = ioThread.takeFree();
     }
+    handOff(next);
     return true;
   }
 
@@ -351,26 +920,78 @@ public final class LogWriter implements Closeable, Flushable {
   }
 
   int declareNewVariableHandle(int typeID, String path) {
-    writeShort(typeID);
+    writeIdentifier(typeID);
     writeStringUTF8(path);
     return nextVarHandle++;
   }
 
   public boolean logNewTimestamp() {
-    long newTime = DTRobot.currentTimeMicros() / 1000;
+    if (pendingCount.get() > 0) {
+      writePendingMessages();
+    }
+
+    long newTime = clock.getAsLong() / 1000;
 
     long diff = newTime - lastTimestamp;
     if (diff <= 0) return false;
 
     lastTimestamp = newTime;
-    if (diff <= 0xFFFF) {
+    if (checkpointInterval > 0 && newTime - lastCheckpoint >= checkpointInterval) {
+      writeCheckpoint(newTime);
+    } else {
+      writeTimestamp(newTime, diff);
+    }
+    return true;
+  }
+
+  private void writeTimestamp(long newTime, long diff) {
+    if (diff == lastTimeIncrement && (formatFlags & FORMAT_XOR_DOUBLES) != 0) {
+      // delta-of-delta is zero, repeat previous increment
+      writeIdentifier(0x0C);
+    } else if (diff <= 0xFFFF) {
       // write increment, maximum of 65.535 seconds
-      INSTANCE.writeInt((0x01 << 16) | (int) diff);
+      writeIdentifier(0x01).writeShort((int) diff);
+      lastTimeIncrement = diff;
     } else {
       // write new timestamp
-      INSTANCE.writeLong((0x02L << 48) | newTime);
+      writeIdentifier(0x02).writeShort((int) (newTime >> 32))
+                           .writeInt((int) newTime);
+      lastTimeIncrement = -1;
     }
-    return true;
+  }
+
+  /**
+   * Writes messages queued by other threads, each at the time it was logged.
+   */
+  private void writePendingMessages() {
+    PendingMessage pending;
+    while ((pending = pendingMessages.poll()) != null) {
+      pendingCount.decrementAndGet();
+      long diff = pending.timestamp - lastTimestamp;
+      if (diff > 0) {
+        lastTimestamp = pending.timestamp;
+        writeTimestamp(pending.timestamp, diff);
+      }
+
+      if (pending.exception != null) {
+        writeTrace(pending.exception, pending.level);
+      } else {
+        writeMessage(pending.text, pending.level);
+      }
+    }
+  }
+
+  /**
+   * Queues a message or exception from a thread other than the robot thread,
+   * since only the robot thread may write to the buffer. If the robot thread
+   * has fallen far behind, the message is dropped from the log.
+   */
+  private void enqueueMessage(DTLog.Level logLevel, String msg, Throwable exception) {
+    if (pendingCount.incrementAndGet() > MAX_PENDING_MESSAGES) {
+      pendingCount.decrementAndGet();
+      return;
+    }
+    pendingMessages.add(new PendingMessage(logLevel, msg, exception));
   }
 
   private boolean logMessage(String msg, DTLog.Level logLevel) {
@@ -378,17 +999,75 @@ public final class LogWriter implements Closeable, Flushable {
       return false;
     }
 
-    if (logLevel == DTLog.Level.ERROR) {
+    printMessage(msg, logLevel);
+    if (Thread.currentThread() != ownerThread) {
+      enqueueMessage(logLevel, msg, null);
+    } else {
+      writeMessage(msg, logLevel);
+    }
+    return true;
+  }
+
+  private static void printMessage(String msg, DTLog.Level logLevel) {
+    if (detached) {
+      System.out.println(msg);
+    } else if (logLevel == DTLog.Level.ERROR) {
       DriverStation.reportError(msg, false);
     } else if (logLevel == DTLog.Level.WARN) {
       DriverStation.reportWarning(msg, false);
     } else {
       System.out.println(msg);
     }
+  }
 
-    writeShort(logLevel.typeID);
-    writeStringUTF8(msg);
-    return true;
+  private void writeMessage(String msg, DTLog.Level logLevel) {
+    DictionaryEntry entry = messages.get(msg);
+    if (entry == null && messages.size() < MAX_DICTIONARY_SIZE && isRepeated(msg)) {
+      entry = new DictionaryEntry(msg);
+      // The first occurrence was written in full
+      entry.count = 1;
+      messages.put(msg, entry);
+    }
+
+    if (entry != null) {
+      writeDictionaryMessage(entry, logLevel);
+    } else {
+      // First occurrence, or dictionary is full, write in full
+      writeIdentifier(logLevel.typeID);
+      writeStringUTF8(msg);
+    }
+  }
+
+  /**
+   * Checks whether a message was recently written in full, remembering it if
+   * not. Messages only enter the dictionary when they repeat, so one-off
+   * messages, such as those containing changing values, don't fill it.
+   */
+  private boolean isRepeated(String msg) {
+    int slot = msg.hashCode() & (RECENT_MESSAGES - 1);
+    if (msg.equals(recentMessages[slot])) {
+      recentMessages[slot] = null;
+      return true;
+    }
+    recentMessages[slot] = msg;
+    return false;
+  }
+
+  /**
+   * Writes an occurrence of a message, declaring it first if it hasn't been
+   * since the last checkpoint.
+   */
+  private void writeDictionaryMessage(DictionaryEntry entry, DTLog.Level logLevel) {
+    if (entry.generation != handleGeneration) {
+      entry.generation = handleGeneration;
+      entry.id = nextMessageID++;
+      writeIdentifier(0x0F).writeShort(entry.id);
+      writeStringUTF8(entry.text);
+    }
+
+    entry.count++;
+    writeIdentifier(logLevel.typeID + 0x08).writeShort(entry.id)
+                                           .writeInt(entry.count);
   }
 
   public static boolean debug(String msg) {
@@ -431,15 +1110,323 @@ public final class LogWriter implements Closeable, Flushable {
     return getInstance().logMessage(msgSupplier, DTLog.Level.ERROR);
   }
 
+  /**
+   * Logs an exception, and its stack trace at {@link DTLog.Level#DEBUG}.
+   * Repeats of the same exception thrown from the same place are recognized
+   * without formatting them, and are logged by reference. The full stack trace
+   * is printed the first time, and the exception is printed again only after
+   * 2, 4, 8, ... occurrences.
+   */
   public static void logException(Throwable exception, DTLog.Level logLevel) {
-    getInstance().logMessage(exception.toString(), logLevel);
-    debug(() -> {
-      ByteArrayOutputStream debugOutput = new ByteArrayOutputStream();
-      PrintStream debugPrinter = new PrintStream(debugOutput);
-      exception.printStackTrace(debugPrinter);
-      String str = new String(debugOutput.toByteArray());
-      return str.substring(str.indexOf('\t'));
-    });
+    getInstance().logTrace(exception, logLevel);
+  }
+
+  private void logTrace(Throwable exception, DTLog.Level logLevel) {
+    if (logLevel.ordinal() < level.ordinal()) return;
+
+    if (Thread.currentThread() != ownerThread) {
+      // Repeats are counted by the robot thread, print later
+      enqueueMessage(logLevel, null, exception);
+    } else {
+      writeTrace(exception, logLevel);
+    }
+  }
+
+  private void writeTrace(Throwable exception, DTLog.Level logLevel) {
+    long hash = getTraceHash(exception);
+    TraceEntry entry = traces.get(hash);
+    if (entry == null) {
+      if (traces.size() >= MAX_DICTIONARY_SIZE) {
+        // Dictionary is full, write in full
+        String summary = exception.toString();
+        printMessage(summary, logLevel);
+        writeMessage(summary, logLevel);
+        if (level == DTLog.Level.DEBUG) {
+          String stackTrace = formatStackTrace(exception);
+          printMessage(stackTrace, DTLog.Level.DEBUG);
+          writeMessage(stackTrace, DTLog.Level.DEBUG);
+        }
+        return;
+      }
+
+      entry = new TraceEntry(exception.toString(), formatStackTrace(exception));
+      traces.put(hash, entry);
+    }
+
+    int count = entry.summary.count + 1;
+    if (count == 1) {
+      printMessage(entry.summary.text + "\n" + entry.stackTrace.text, logLevel);
+    } else if (Integer.bitCount(count) == 1) {
+      printMessage(entry.summary.text + " (x" + count + ")", logLevel);
+    }
+
+    writeDictionaryMessage(entry.summary, logLevel);
+    if (level == DTLog.Level.DEBUG) {
+      writeDictionaryMessage(entry.stackTrace, DTLog.Level.DEBUG);
+    }
+  }
+
+  /**
+   * Hashes an exception's type, message and stack frames, and those of its
+   * causes, without formatting any of them.
+   */
+  private static long getTraceHash(Throwable exception) {
+    long hash = 1;
+    Throwable cause = exception;
+    for (int depth = 0; cause != null && depth < MAX_TRACE_DEPTH; depth++) {
+      hash = 31 * hash + cause.getClass()
+                              .hashCode();
+      hash = 31 * hash + Objects.hashCode(cause.getMessage());
+      for (StackTraceElement element : cause.getStackTrace()) {
+        hash = 31 * hash + element.hashCode();
+      }
+      cause = cause.getCause();
+    }
+    return hash;
+  }
+
+  private static String formatStackTrace(Throwable exception) {
+    ByteArrayOutputStream debugOutput = new ByteArrayOutputStream();
+    PrintStream debugPrinter = new PrintStream(debugOutput);
+    exception.printStackTrace(debugPrinter);
+    String str = new String(debugOutput.toByteArray());
+    int start = str.indexOf('\t');
+    return start < 0 ? str : str.substring(start);
+  }
+
+  /**
+   * @return the total number of bytes written to the log file
+   */
+  public long getBytesWritten() {
+    return ioThread == null ? bytesWritten : ioThread.getBytesWritten();
+  }
+
+  /**
+   * @return the number of times the robot thread had to wait for buffered data
+   *           to be written before it could continue logging
+   */
+  public long getStallCount() {
+    return stallCount;
+  }
+
+  /**
+   * @return the number of records discarded under the
+   *           {@link OverflowPolicy#DROP DROP} policy
+   */
+  public long getDroppedRecordCount() {
+    return droppedRecords;
+  }
+
+  /**
+   * Sets the level of messages to log and print. Messages from other threads
+   * use the new level immediately.
+   *
+   * @param logLevel the least severe level to log
+   */
+  public void setLevel(DTLog.Level logLevel) {
+    level = Objects.requireNonNull(logLevel);
+  }
+
+  public DTLog.Level getLevel() {
+    return level;
+  }
+
+  /**
+   * @return the number of old log files deleted to free space
+   */
+  public int getDeletedFileCount() {
+    return storage == null ? 0 : storage.getDeletedFileCount();
+  }
+
+  /**
+   * @return whether logging is suspended because the drive is full, or for
+   *           the rest of the cycle after a failed write
+   */
+  public boolean isSuspended() {
+    return suspended;
+  }
+
+  /**
+   * @return the number of buffers that could not be written due to I/O errors,
+   *           including those discarded after a failure to start a new segment
+   *           in asynchronous mode
+   */
+  public long getFailedWriteCount() {
+    return ioThread == null ? failedWrites : ioThread.getFailedWrites();
+  }
+
+  /**
+   * Configures the writer to perform file I/O on a dedicated background
+   * thread. The robot thread logs into one buffer while previously filled
+   * buffers are written out, so a slow drive no longer stalls the robot loop
+   * until every buffer is full. Must be called before the robot starts.
+   *
+   * @param bufferCount the total number of buffers (at least 2), bounding
+   *        memory usage and the amount of data waiting to be written
+   * @param policy the action to take when all buffers are full
+   */
+  public static void configAsync(int bufferCount, OverflowPolicy policy) {
+    if (bufferCount < 2) {
+      throw new IllegalArgumentException("asynchronous logging requires at least 2 buffers");
+    }
+    asyncBufferCount = bufferCount;
+    overflowPolicy = Objects.requireNonNull(policy);
+  }
+
+  /**
+   * Configures the writer to store logs in fixed-size segment files, which are
+   * pre-allocated and written through memory mapping rather than file writes.
+   * Logging each cycle becomes a memory copy, and the operating system flushes
+   * the data to the drive in the background. Must be called before the robot
+   * starts.
+   *
+   * @param segmentSizeBytes the size of each segment file
+   */
+  public static void configMappedSegments(int segmentSizeBytes) {
+    if (segmentSizeBytes < 4 * BUFFER_SIZE_BYTES) {
+      throw new IllegalArgumentException("segment size must be at least " + 4 * BUFFER_SIZE_BYTES
+          + " bytes");
+    }
+    mappedSegmentSize = segmentSizeBytes;
+  }
+
+  /**
+   * Configures the writer to compress double and double array variables by
+   * XORing each value with the previous one and packing the meaningful bits,
+   * and to write a 2-byte record when the time between cycles is unchanged.
+   * Slowly changing values such as encoder positions and voltages shrink
+   * considerably. The format is marked in the file header. Must be called
+   * before the robot is constructed.
+   *
+   * @param enabled whether to compress doubles
+   */
+  @SuppressWarnings("java:S2301") // boolean "flag" as method parameter
+  public static void configDoubleCompression(boolean enabled) {
+    if (enabled) {
+      formatFlags |= FORMAT_XOR_DOUBLES;
+    } else {
+      formatFlags &= ~FORMAT_XOR_DOUBLES;
+    }
+  }
+
+  /**
+   * Configures the writer to periodically write checkpoints, from which a
+   * reader can begin decoding the log. Every variable is redeclared with its
+   * current value after a checkpoint, and each file ends with an index of its
+   * checkpoints, so a reader can seek to any time without decoding everything
+   * before it. Must be called before the robot starts.
+   *
+   * @param intervalMillis the minimum time between checkpoints, or 0 to
+   *        disable them
+   */
+  public static void configCheckpoints(int intervalMillis) {
+    if (intervalMillis < 0) {
+      throw new IllegalArgumentException("checkpoint interval must not be negative");
+    }
+    checkpointInterval = intervalMillis;
+  }
+
+  /**
+   * Configures the writer to compress log data in blocks with
+   * {@link java.util.zip.Deflater Deflater} before writing it, trading CPU
+   * time for much less drive bandwidth. Data is compressed on the I/O thread
+   * if {@link #configAsync(int, OverflowPolicy) asynchronous} writing is
+   * configured, which is strongly recommended, and otherwise on the robot
+   * thread. Buffered data is written once half a buffer has accumulated rather
+   * than every cycle, so more data may be lost on a power failure. Must be
+   * called before the robot starts.
+   *
+   * @param level the compression level from 1 (fastest) to 9 (smallest), or 0
+   *        to disable
+   */
+  public static void configBlockCompression(int level) {
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("compression level must be between 0 and 9");
+    }
+    compressionLevel = level;
+    if (level > 0) {
+      formatFlags |= FORMAT_BLOCK_COMPRESSED;
+    } else {
+      formatFlags &= ~FORMAT_BLOCK_COMPRESSED;
+    }
+  }
+
+  /**
+   * Configures the writer to start a new segment file once the current one
+   * reaches a size or duration, checked at the end of each cycle. Segments are
+   * named after the first, with an increasing suffix. Must be called before
+   * the robot starts. Segments are never allowed to grow past 1 GiB of
+   * uncompressed data, since the index holds 4-byte offsets.
+   *
+   * @param maxSizeBytes the size at which to start a new segment, or 0 for the
+   *        1 GiB limit
+   * @param maxDurationMillis the time after which to start a new segment, or 0
+   *        for no limit
+   */
+  public static void configRotation(long maxSizeBytes, long maxDurationMillis) {
+    if (maxSizeBytes < 0 || maxDurationMillis < 0) {
+      throw new IllegalArgumentException("rotation limits must not be negative");
+    }
+    maxSegmentBytes = maxSizeBytes;
+    maxSegmentMillis = maxDurationMillis;
+  }
+
+  /**
+   * Configures the writer to keep free space on the log drive, by deleting the
+   * oldest logs when it runs low. The drive is checked when the writer starts,
+   * then every few seconds on a background thread. If space can't be freed,
+   * logging is suspended until it is. Must be called before the robot starts.
+   *
+   * @param freeBytes the minimum free space to maintain, or 0 to disable
+   */
+  public static void configRetention(long freeBytes) {
+    if (freeBytes < 0) {
+      throw new IllegalArgumentException("free space must not be negative");
+    }
+    minFreeBytes = freeBytes;
+  }
+
+  /**
+   * Configures the writer to also convert the log to WPILib's .wpilog format
+   * as it is written, for tools that can't read .dtlog files. A single .wpilog
+   * file is written alongside the log's segments, and conversion runs on the
+   * I/O thread if {@link #configAsync(int, OverflowPolicy) asynchronous}
+   * writing is configured. Segments containing values of custom types are
+   * only converted up to the first such value. Must be called before the
+   * robot starts.
+   *
+   * @param enabled whether to write a .wpilog file
+   * @see org.victorrobotics.dtlib.log.reader.WpilogConverter
+   */
+  public static void configWpilogTee(boolean enabled) {
+    wpilogTee = enabled;
+  }
+
+  /**
+   * Configures the writer to summarize the log when it closes, for plotting
+   * long logs without decoding them. The summary is built in a single pass
+   * over the finished log on a background thread, and written next to it as a
+   * {@code .dtsum} file. Must be called before the robot starts.
+   *
+   * @param enabled whether to summarize the log on close
+   * @see LogSummary
+   */
+  public static void configSummary(boolean enabled) {
+    summaryEnabled = enabled;
+  }
+
+  /**
+   * Sets the directory logs are written to, {@code /U/dtlog} by default. Must
+   * be called before the robot starts.
+   *
+   * @param directory the log directory
+   */
+  public static void configDirectory(File directory) {
+    logDirectory = directory;
+  }
+
+  static boolean isDoubleCompressionEnabled() {
+    return (formatFlags & FORMAT_XOR_DOUBLES) != 0;
   }
 
   public static void init(DTLog.Level logLevel) {
@@ -457,7 +1444,108 @@ public final class LogWriter implements Closeable, Flushable {
     }
   }
 
+  /**
+   * Opens a writer without a robot, for tools and tests that write logs on
+   * another computer. Time is read from the given clock, the team number is
+   * recorded as 0, and messages are printed to the console rather than the
+   * driver station.
+   *
+   * @param logLevel the least verbose level of messages to log
+   * @param timeMicros the current time, in microseconds
+   * @throws IOException if the log can't be created
+   */
+  static void initDetached(DTLog.Level logLevel, LongSupplier timeMicros) throws IOException {
+    clock = timeMicros;
+    teamNumber = () -> 0;
+    detached = true;
+    INSTANCE = new LogWriter(logLevel);
+  }
+
+  /**
+   * Restores the default configuration, so each test starts from it.
+   */
+  static void resetConfig() {
+    asyncBufferCount = 0;
+    overflowPolicy = OverflowPolicy.BLOCK;
+    mappedSegmentSize = 0;
+    formatFlags = FORMAT_FLOAT_ARRAYS;
+    checkpointInterval = 0;
+    maxSegmentBytes = 0;
+    maxSegmentMillis = 0;
+    minFreeBytes = 0;
+    compressionLevel = 0;
+    wpilogTee = false;
+    summaryEnabled = false;
+    logDirectory = new File("/U/dtlog");
+    INSTANCE = null;
+  }
+
   public static LogWriter getInstance() {
     return INSTANCE;
   }
+
+  /**
+   * A message in the log's dictionary. Its ID is assigned when it's declared,
+   * and only valid until the next checkpoint.
+   */
+  private static final class DictionaryEntry {
+    final String text;
+
+    int id;
+    int generation = -1;
+    int count;
+
+    DictionaryEntry(String text) {
+      this.text = text;
+    }
+  }
+
+  /**
+   * A message or exception logged from a thread other than the robot thread,
+   * waiting to be written by it.
+   */
+  private static final class PendingMessage {
+    final long        timestamp;
+    final DTLog.Level level;
+    final String      text;
+    final Throwable   exception;
+
+    PendingMessage(DTLog.Level level, String text, Throwable exception) {
+      this.timestamp = clock.getAsLong() / 1000;
+      this.level = level;
+      this.text = text;
+      this.exception = exception;
+    }
+  }
+
+  private static final class TraceEntry {
+    final DictionaryEntry summary;
+    final DictionaryEntry stackTrace;
+
+    TraceEntry(String summary, String stackTrace) {
+      this.summary = new DictionaryEntry(summary);
+      this.stackTrace = new DictionaryEntry(stackTrace);
+    }
+  }
+
+  /**
+   * The action an asynchronous writer takes when the robot thread fills its
+   * buffer and no other buffer is free, because the I/O thread has fallen
+   * behind.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Wait for the I/O thread to free a buffer. No data is lost, but the robot
+     * loop may stall while the drive catches up.
+     */
+    BLOCK,
+    /**
+     * Discard value records for the remainder of the robot cycle. Essential
+     * records (timestamps, variable declarations, mode changes and messages)
+     * are never dropped, so the file remains decodable. A variable whose
+     * value or null is dropped writes its current value again the next time
+     * it is logged, even if unchanged, so readers don't keep a stale value.
+     */
+    DROP
+  }
 }
@@ -0,0 +1,169 @@
+package org.victorrobotics.dtlib.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The background I/O thread used by an asynchronous {@link LogWriter}. Filled
+ * buffers are handed off by the robot thread and written to the output here,
+ * then returned to a fixed pool of free buffers for reuse.
+ */
+final class LogWriterThread extends Thread {
+  private static final ByteBuffer STOP         = ByteBuffer.allocate(0);
+  private static final ByteBuffer NEXT_SEGMENT = ByteBuffer.allocate(0);
+
+  private final LogOutput                 output;
+  private final BlockingQueue<ByteBuffer> filledBuffers;
+  private final BlockingQueue<ByteBuffer> freeBuffers;
+
+  private volatile long    bytesWritten;
+  private volatile long    failedWrites;
+  private volatile boolean segmentFailed;
+
+  private boolean discarding;
+
+  LogWriterThread(LogOutput output, int bufferCount, int bufferSize) {
+    super("DTLog Writer");
+    setDaemon(true);
+
+    this.output = output;
+    filledBuffers = new ArrayBlockingQueue<>(2 * bufferCount + 1);
+    freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+    for (int i = 0; i < bufferCount; i++) {
+      freeBuffers.add(ByteBuffer.allocateDirect(bufferSize));
+    }
+  }
+
+  /**
+   * @return a free buffer, or null if all buffers are waiting to be written
+   */
+  ByteBuffer pollFree() {
+    return freeBuffers.poll();
+  }
+
+  /**
+   * Waits until the I/O thread has finished with a buffer.
+   *
+   * @return a free buffer
+   */
+  ByteBuffer takeFree() {
+    while (true) {
+      try {
+        return freeBuffers.take();
+      } catch (InterruptedException e) {
+        // Robot thread must not give up its buffer, keep waiting
+      }
+    }
+  }
+
+  /**
+   * Queues a buffer to be written to the file. The buffer must not be accessed
+   * again until it is returned by {@link #pollFree()} or {@link #takeFree()}.
+   *
+   * @param buffer the buffer, in write mode (data between 0 and its position)
+   */
+  void submit(ByteBuffer buffer) {
+    buffer.flip();
+    // Capacity covers every buffer plus segment markers, never blocks
+    filledBuffers.add(buffer);
+  }
+
+  /**
+   * Queues a switch to a new segment file, after all previously submitted data
+   * has been written.
+   */
+  void submitNextSegment() {
+    filledBuffers.add(NEXT_SEGMENT);
+  }
+
+  /**
+   * Checks whether the last switch to a new segment failed. Data submitted
+   * since then is discarded, rather than written into the previous segment,
+   * until {@link #submitNextSegment()} is called again.
+   *
+   * @return whether the switch failed, cleared once reported
+   */
+  boolean takeSegmentFailure() {
+    if (!segmentFailed) return false;
+
+    segmentFailed = false;
+    return true;
+  }
+
+  void shutdown() {
+    filledBuffers.add(STOP);
+    boolean interrupted = false;
+    while (isAlive()) {
+      try {
+        join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread()
+            .interrupt();
+    }
+  }
+
+  long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  long getFailedWrites() {
+    return failedWrites;
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      ByteBuffer buffer;
+      try {
+        buffer = filledBuffers.take();
+      } catch (InterruptedException e) {
+        continue;
+      }
+
+      if (buffer == STOP) return;
+
+      if (buffer == NEXT_SEGMENT) {
+        try {
+          output.nextSegment();
+          discarding = false;
+        } catch (IOException e) {
+          // Queued data starts with the new segment's header, which must not
+          // end up after the previous segment's index
+          failedWrites++;
+          discarding = true;
+          segmentFailed = true;
+        }
+        continue;
+      }
+
+      if (discarding) {
+        failedWrites++;
+      } else {
+        write(buffer);
+      }
+
+      buffer.clear();
+      freeBuffers.add(buffer);
+    }
+  }
+
+  private void write(ByteBuffer buffer) {
+    try {
+      int length = buffer.remaining();
+      Object event = FlightRecorderEvents.beginWrite();
+      output.write(buffer);
+      FlightRecorderEvents.endWrite(event, length, true);
+      bytesWritten += length;
+    } catch (IOException e) {
+      // Drive removed or failed, discard the block rather than stall the
+      // robot thread indefinitely
+      failedWrites++;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.ToLongFunction;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A {@code long} variable, read and compared without boxing.
+ */
+final class LongLogVariable extends LogVariable {
+  private final ToLongFunction<Object> getter;
+
+  private long    prevValue;
+  private boolean hasValue;
+
+  LongLogVariable(int typeID, String path, ToLongFunction<Object> getter) {
+    super(typeID, path);
+    this.getter = getter;
+  }
+
+  @Override
+  void log(Object parent) {
+    long value;
+    try {
+      value = getter.applyAsLong(parent);
+    } catch (RuntimeException e) {
+      LogWriter.logException(e, DTLog.Level.ERROR);
+      logNull();
+      return;
+    }
+
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && hasValue && value == prevValue) return;
+
+    writeHandle(writer).writeLong(value);
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+    prevValue = value;
+    hasValue = true;
+  }
+
+  @Override
+  void logNull() {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && !hasValue) return;
+
+    writeNull(writer);
+    if (isDropped(writer)) return;
+
+    hasValue = false;
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofLong(table, name, getter);
+  }
+}
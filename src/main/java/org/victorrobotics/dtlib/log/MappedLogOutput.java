@@ -0,0 +1,174 @@
+package org.victorrobotics.dtlib.log;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A log output that pre-allocates fixed-size segment files and writes to them
+ * through a {@link MappedByteBuffer}. Writing a block of log data is a plain
+ * memory copy, and the operating system's page cache is responsible for
+ * flushing it to the drive. The next segment is created and mapped on a
+ * background thread before it is needed, and finished segments are trimmed to
+ * their written length there as well.
+ * <p>
+ * A segment whose data outgrows its pre-allocated size is extended in place,
+ * so the writer is expected to start a new segment before reaching
+ * {@link #getSegmentLimit()}. If the next segment is still being allocated
+ * then, the writer keeps writing to the current one rather than wait.
+ */
+final class MappedLogOutput implements LogOutput {
+  private static final class Segment {
+    private final File        file;
+    private final FileChannel channel;
+
+    private MappedByteBuffer mapping;
+    private long             mappingOffset;
+
+    Segment(File file, int size) throws IOException {
+      this.file = file;
+      channel = FileChannel.open(file.toPath(), READ, WRITE, CREATE, TRUNCATE_EXISTING);
+      mapping = channel.map(MapMode.READ_WRITE, 0, size);
+    }
+
+    long length() {
+      return mappingOffset + mapping.position();
+    }
+
+    void extend(int minBytes, int growBytes) throws IOException {
+      long offset = length();
+      mapping = channel.map(MapMode.READ_WRITE, offset, Math.max(minBytes, growBytes));
+      mappingOffset = offset;
+    }
+
+    void finish() throws IOException {
+      mapping.force();
+      channel.truncate(length());
+      channel.close();
+    }
+
+    void discard() throws IOException {
+      channel.close();
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  private final File            directory;
+  private final String          baseName;
+  private final int             segmentSize;
+  private final int             reserveBytes;
+  private final ExecutorService allocator;
+
+  private Segment                  current;
+  private volatile Future<Segment> next;
+  private int                      segmentIndex;
+
+  MappedLogOutput(File directory, String baseName, int segmentSize, int reserveBytes)
+      throws IOException {
+    this.directory = directory;
+    this.baseName = baseName;
+    this.segmentSize = segmentSize;
+    this.reserveBytes = reserveBytes;
+
+    allocator = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "DTLog Segment Allocator");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    current = allocate(0);
+    next = allocator.submit(() -> allocate(1));
+  }
+
+  private Segment allocate(int index) throws IOException {
+    return new Segment(new File(directory, LogOutput.getSegmentName(baseName, index)), segmentSize);
+  }
+
+  @Override
+  public void write(ByteBuffer data) throws IOException {
+    int length = data.remaining();
+    if (current.mapping.remaining() < length) {
+      // Slow path, writer didn't roll over in time
+      current.extend(length, segmentSize >> 3);
+    }
+    current.mapping.put(data);
+  }
+
+  @Override
+  public void nextSegment() throws IOException {
+    Segment finished = current;
+    current = await(next);
+    segmentIndex++;
+
+    int nextIndex = segmentIndex + 1;
+    next = allocator.submit(() -> {
+      try {
+        finished.finish();
+      } catch (IOException e) {
+        // Segment keeps its zero-filled tail, which readers treat as the end
+      }
+      return allocate(nextIndex);
+    });
+  }
+
+  /**
+   * @return whether the next segment has been allocated, so switching to it
+   *           doesn't wait on the drive
+   */
+  @Override
+  public boolean isNextSegmentReady() {
+    return next.isDone();
+  }
+
+  @Override
+  public long getSegmentLimit() {
+    return (long) segmentSize - reserveBytes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      current.finish();
+      await(next).discard();
+    } finally {
+      allocator.shutdown();
+    }
+  }
+
+  private static Segment await(Future<Segment> future) throws IOException {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException ioException) {
+            throw ioException;
+          }
+          throw new IOException(cause);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread()
+              .interrupt();
+      }
+    }
+  }
+}
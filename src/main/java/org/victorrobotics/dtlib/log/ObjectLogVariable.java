@@ -0,0 +1,65 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * A variable of any registered {@link LogType}, encoded by the type's writer.
+ */
+public class ObjectLogVariable extends LogVariable {
+  private final LogType               type;
+  private final UnaryOperator<Object> getter;
+
+  private final ArraySnapshot snapshot;
+
+  private Object prevValue;
+
+  ObjectLogVariable(LogType type, String path, UnaryOperator<Object> getter) {
+    super(type.id, path);
+    this.type = type;
+    this.getter = getter;
+    this.snapshot = ArraySnapshot.isSupported(type) ? new ArraySnapshot() : null;
+  }
+
+  @Override
+  void log(Object parent) {
+    logValue(getter.apply(parent));
+  }
+
+  @Override
+  void logNull() {
+    logValue(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  void logValue(Object value) {
+    LogWriter writer = LogWriter.getInstance();
+    if (!isHandleReset(writer) && isUnchanged(value)) return;
+
+    if (value == null) {
+      writeNull(writer);
+    } else {
+      writeHandle(writer);
+      type.writer.accept(value);
+    }
+    if (isDropped(writer)) return; // Reader never saw it, keep the previous state
+
+
+    if (snapshot != null) {
+      snapshot.update(value);
+    } else {
+      prevValue = value;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean isUnchanged(Object value) {
+    return snapshot != null ? snapshot.matches(value) : type.equals.test(prevValue, value);
+  }
+
+  @Override
+  TelemetryValue newTelemetry(NetworkTable table, String name) {
+    return TelemetryValue.ofObject(table, name, type, getter);
+  }
+}
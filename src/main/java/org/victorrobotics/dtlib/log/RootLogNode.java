@@ -1,34 +1,200 @@
 package org.victorrobotics.dtlib.log;
 
+import org.victorrobotics.dtlib.dashboard.DTDash;
+
+import java.io.File;
 import java.util.ArrayDeque;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.StringEntry;
+import edu.wpi.first.wpilibj.Filesystem;
 
+/**
+ * The root of the log tree, built once from the robot object. Every loggable
+ * variable is included, and levels only decide which parts of the tree are
+ * logged, so they can be changed while the robot runs.
+ * <p>
+ * Levels are also published to DTDash as {@code Log/levels}, in the form
+ * {@code "INFO, /Robot/driveTrain=DEBUG"}: the robot's level, followed by any
+ * paths with their own level. Setting this entry changes the levels on the
+ * next cycle.
+ */
 public class RootLogNode extends LogNode {
-  private static final Object NO_PARENT_OBJ = new Object();
+  private static final Object NO_PARENT_OBJ     = new Object();
+  private static final String SCHEMA_CACHE_NAME = "dtlog-schema.bin";
+
+  private static Supplier<File> schemaCache =
+      () -> new File(Filesystem.getOperatingDirectory(), SCHEMA_CACHE_NAME);
 
-  private final StaticLogVariable[] staticVars;
+  private final LogNode                  staticVars;
+  private final Map<String, DTLog.Level> levelOverrides;
+  private final StringEntry              levelEntry;
+  private final LogTelemetry             telemetry;
+
+  private DTLog.Level level;
+  private long        levelChangeTime;
 
   public RootLogNode(Object robot, DTLog.Level robotLogLevel) {
     super("", robot.toString(), robot.getClass(), unused -> robot);
 
-    Map<StaticLogVariable, DTLog.Level> staticVarList = new LinkedHashMap<>();
-    init(new ArrayDeque<>(), new LinkedHashSet<>(), staticVarList, robotLogLevel);
+    File cacheFile = schemaCache.get();
+    LogSchema.load(cacheFile);
+
+    Map<LogNode, DTLog> staticVarList = new LinkedHashMap<>();
+    init(new ArrayDeque<>(), new LinkedHashSet<>(), staticVarList);
+    staticVars = new LogNode("", "", null, UnaryOperator.identity());
+    if (!staticVarList.isEmpty()) {
+      staticVars.setChildren(staticVarList);
+    }
+
+    LogSchema.save(cacheFile);
+
+    level = Objects.requireNonNull(robotLogLevel);
+    levelOverrides = new LinkedHashMap<>();
+    levelEntry = DTDash.getMainTable()
+                       .getSubTable("Log")
+                       .getStringTopic("levels")
+                       .getEntry(formatLevels());
+    updateLevels();
+    telemetry = new LogTelemetry();
+  }
+
+  /**
+   * Sets the file where the annotated members of each class are cached, so
+   * that later boots don't have to scan unchanged classes. By default, the
+   * cache is kept in the robot's operating directory. Must be called before
+   * the robot is constructed.
+   *
+   * @param file the cache file, or null to scan every class on each boot
+   */
+  public static void configSchemaCache(File file) {
+    schemaCache = () -> file;
+  }
+
+  /**
+   * Sets the robot's log level, for both variables and messages.
+   *
+   * @param logLevel the least verbose level of variables to log
+   */
+  public void setLevel(DTLog.Level logLevel) {
+    level = Objects.requireNonNull(logLevel);
+    updateLevels();
+  }
+
+  /**
+   * Sets the log level of a variable and everything inside it, regardless of
+   * the levels above it. For example, setting {@code "/Robot/driveTrain"} to
+   * {@link DTLog.Level#DEBUG DEBUG} logs all of the drive train's variables.
+   * If a variable above it isn't logged at its own level, only the way down to
+   * the path is logged inside it.
+   *
+   * @param path the path of the variable
+   * @param logLevel the least verbose level of variables to log inside it, or
+   *        null to remove the path's own level
+   */
+  public void setLevel(String path, DTLog.Level logLevel) {
+    if (logLevel == null) {
+      levelOverrides.remove(path);
+    } else {
+      levelOverrides.put(path, logLevel);
+    }
+    updateLevels();
+  }
+
+  /**
+   * Publishes every variable inside a path to DTDash while the robot runs,
+   * such as {@code "/Robot/driveTrain"}. Static variables are selected by
+   * their own paths, such as {@code "static/Robot"}.
+   *
+   * @param path the path to publish
+   * @see LogTelemetry
+   */
+  public void publish(String path) {
+    collectTelemetry(path, telemetry);
+    staticVars.collectTelemetry(path, unused -> NO_PARENT_OBJ, telemetry);
+  }
 
-    staticVarList.entrySet()
-                 .removeIf(entry -> {
-                   DTLog.Level varLogLevel = entry.getValue();
-                   return varLogLevel.ordinal() < robotLogLevel.ordinal();
-                 });
-    staticVars = staticVarList.keySet()
-                              .toArray(StaticLogVariable[]::new);
+  public LogTelemetry getTelemetry() {
+    return telemetry;
+  }
+
+  public DTLog.Level getLevel() {
+    return level;
+  }
+
+  private void updateLevels() {
+    applyLevels(level, levelOverrides);
+    staticVars.applyLevels(level, levelOverrides);
+
+    LogWriter writer = LogWriter.getInstance();
+    if (writer != null) {
+      writer.setLevel(level);
+    }
+
+    levelEntry.set(formatLevels());
+    levelChangeTime = levelEntry.getLastChange();
+  }
+
+  private String formatLevels() {
+    StringBuilder builder = new StringBuilder(level.name());
+    for (Map.Entry<String, DTLog.Level> entry : levelOverrides.entrySet()) {
+      builder.append(", ")
+             .append(entry.getKey())
+             .append('=')
+             .append(entry.getValue()
+                          .name());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Reads levels set from the dashboard. Invalid entries are ignored as a
+   * whole.
+   */
+  private void readLevels() {
+    long changeTime = levelEntry.getLastChange();
+    if (changeTime == levelChangeTime) return;
+    levelChangeTime = changeTime;
+
+    DTLog.Level newLevel = level;
+    Map<String, DTLog.Level> newOverrides = new LinkedHashMap<>();
+    for (String part : levelEntry.get()
+                                 .split(",")) {
+      part = part.trim();
+      if (part.isEmpty()) continue;
+
+      int split = part.indexOf('=');
+      try {
+        if (split < 0) {
+          newLevel = DTLog.Level.valueOf(part.toUpperCase());
+        } else {
+          newOverrides.put(part.substring(0, split)
+                               .trim(),
+                           DTLog.Level.valueOf(part.substring(split + 1)
+                                                   .trim()
+                                                   .toUpperCase()));
+        }
+      } catch (IllegalArgumentException e) {
+        LogWriter.warn("Invalid log level: " + part);
+        return;
+      }
+    }
+
+    level = newLevel;
+    levelOverrides.clear();
+    levelOverrides.putAll(newOverrides);
+    updateLevels();
   }
 
   public void log() {
+    readLevels();
     log(NO_PARENT_OBJ);
-    for (StaticLogVariable staticVar : staticVars) {
-      staticVar.log();
-    }
+    staticVars.log(NO_PARENT_OBJ);
+    telemetry.publish();
   }
 }
@@ -2,15 +2,12 @@ package org.victorrobotics.dtlib.log;
 
 import java.util.function.Supplier;
 
-public class StaticLogVariable extends LogVariable {
-  private final Supplier<?> accessor;
-
+public class StaticLogVariable extends ObjectLogVariable {
   protected StaticLogVariable(LogType type, Class<?> enclosingClazz, String name, Supplier<?> accessor) {
-    super(type, "static/" + enclosingClazz.getSimpleName() + "/" + name);
-    this.accessor = accessor;
+    super(type, getPath(enclosingClazz, name), unused -> accessor.get());
   }
 
-  protected void log() {
-    logValue(accessor.get());
+  static String getPath(Class<?> enclosingClazz, String name) {
+    return "static/" + enclosingClazz.getSimpleName() + "/" + name;
   }
 }
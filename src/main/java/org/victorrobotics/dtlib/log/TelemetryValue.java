@@ -0,0 +1,344 @@
+package org.victorrobotics.dtlib.log;
+
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+import edu.wpi.first.networktables.BooleanArrayPublisher;
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerArrayPublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.RawPublisher;
+import edu.wpi.first.networktables.StringPublisher;
+
+/**
+ * A log variable published to NetworkTables by {@link LogTelemetry}, through
+ * a typed publisher created once. Like the variable itself, its value is read
+ * from a parent object and only sent when it has changed.
+ */
+abstract class TelemetryValue {
+  /** Approximate size of an update's topic ID, timestamp and type */
+  static final int OVERHEAD_BYTES = 12;
+
+  /**
+   * Sends the variable's value if it has changed since it was last sent.
+   *
+   * @param parent the object containing the variable
+   * @return the approximate number of bytes sent, or 0 if nothing was sent
+   */
+  abstract int publish(Object parent);
+
+  static TelemetryValue ofDouble(NetworkTable table, String name,
+                                 ToDoubleFunction<Object> getter) {
+    return new DoubleValue(table.getDoubleTopic(name)
+                                .publish(),
+                           getter);
+  }
+
+  static TelemetryValue ofLong(NetworkTable table, String name, ToLongFunction<Object> getter) {
+    return new LongValue(table.getIntegerTopic(name)
+                              .publish(),
+                         getter);
+  }
+
+  static TelemetryValue ofInt(NetworkTable table, String name, ToIntFunction<Object> getter) {
+    return ofLong(table, name, getter::applyAsInt);
+  }
+
+  static TelemetryValue ofBoolean(NetworkTable table, String name, Predicate<Object> getter) {
+    return new BooleanValue(table.getBooleanTopic(name)
+                                 .publish(),
+                            getter);
+  }
+
+  /**
+   * Creates a publisher for a variable of a built-in type: boxed primitives,
+   * strings, and 1D primitive arrays. Integral values are published as
+   * integers, and {@code float[]} as {@code double[]}.
+   *
+   * @return the value, or null if the type can't be published
+   */
+  static TelemetryValue ofObject(NetworkTable table, String name, LogType type,
+                                 UnaryOperator<Object> getter) {
+    ToIntFunction<Object> sender = switch (type.id) {
+      case 0x20 -> {
+        BooleanPublisher publisher = table.getBooleanTopic(name)
+                                          .publish();
+        yield value -> {
+          publisher.set((Boolean) value);
+          return 1;
+        };
+      }
+      case 0x21, 0x22, 0x25, 0x26, 0x27 -> {
+        IntegerPublisher publisher = table.getIntegerTopic(name)
+                                          .publish();
+        yield value -> {
+          publisher.set(value instanceof Character c ? c : ((Number) value).longValue());
+          return 8;
+        };
+      }
+      case 0x23, 0x24 -> {
+        DoublePublisher publisher = table.getDoubleTopic(name)
+                                         .publish();
+        yield value -> {
+          publisher.set(((Number) value).doubleValue());
+          return 8;
+        };
+      }
+      case 0x28 -> {
+        BooleanArrayPublisher publisher = table.getBooleanArrayTopic(name)
+                                               .publish();
+        yield value -> {
+          publisher.set((boolean[]) value);
+          return ((boolean[]) value).length;
+        };
+      }
+      case 0x29 -> {
+        RawPublisher publisher = table.getRawTopic(name)
+                                      .publish("raw");
+        yield value -> {
+          publisher.set((byte[]) value);
+          return ((byte[]) value).length;
+        };
+      }
+      case 0x2A, 0x2D, 0x2E, 0x2F -> {
+        IntegerArrayPublisher publisher = table.getIntegerArrayTopic(name)
+                                               .publish();
+        yield new IntegralArraySender(publisher);
+      }
+      case 0x2B, 0x2C -> {
+        DoubleArrayPublisher publisher = table.getDoubleArrayTopic(name)
+                                              .publish();
+        yield new FloatingArraySender(publisher);
+      }
+      case 0x30 -> {
+        StringPublisher publisher = table.getStringTopic(name)
+                                         .publish();
+        yield value -> {
+          publisher.set((String) value);
+          return ((String) value).length();
+        };
+      }
+      default -> null;
+    };
+    return sender == null ? null : new ObjectValue(type, getter, sender);
+  }
+
+  /**
+   * Publishes {@code char[]}, {@code short[]}, {@code int[]} and
+   * {@code long[]} values as integer arrays. Other types are widened into one
+   * array, which is only reallocated when the length changes.
+   */
+  private static final class IntegralArraySender implements ToIntFunction<Object> {
+    private final IntegerArrayPublisher publisher;
+
+    private long[] longs = new long[0];
+
+    IntegralArraySender(IntegerArrayPublisher publisher) {
+      this.publisher = publisher;
+    }
+
+    @Override
+    public int applyAsInt(Object value) {
+      if (value instanceof long[] l) {
+        publisher.set(l);
+        return l.length * 8;
+      }
+
+      if (value instanceof int[] a) {
+        widen(a.length);
+        for (int i = 0; i < a.length; i++) {
+          longs[i] = a[i];
+        }
+      } else if (value instanceof short[] a) {
+        widen(a.length);
+        for (int i = 0; i < a.length; i++) {
+          longs[i] = a[i];
+        }
+      } else {
+        char[] a = (char[]) value;
+        widen(a.length);
+        for (int i = 0; i < a.length; i++) {
+          longs[i] = a[i];
+        }
+      }
+      publisher.set(longs);
+      return longs.length * 8;
+    }
+
+    private void widen(int length) {
+      if (longs.length != length) {
+        longs = new long[length];
+      }
+    }
+  }
+
+  /**
+   * Publishes {@code float[]} and {@code double[]} values as double arrays.
+   * Floats are widened into one array, which is only reallocated when the
+   * length changes.
+   */
+  private static final class FloatingArraySender implements ToIntFunction<Object> {
+    private final DoubleArrayPublisher publisher;
+
+    private double[] doubles = new double[0];
+
+    FloatingArraySender(DoubleArrayPublisher publisher) {
+      this.publisher = publisher;
+    }
+
+    @Override
+    public int applyAsInt(Object value) {
+      if (value instanceof double[] d) {
+        publisher.set(d);
+        return d.length * 8;
+      }
+
+      float[] f = (float[]) value;
+      if (doubles.length != f.length) {
+        doubles = new double[f.length];
+      }
+      for (int i = 0; i < f.length; i++) {
+        doubles[i] = f[i];
+      }
+      publisher.set(doubles);
+      return doubles.length * 8;
+    }
+  }
+
+  private static final class DoubleValue extends TelemetryValue {
+    private final DoublePublisher          publisher;
+    private final ToDoubleFunction<Object> getter;
+
+    private long    prevBits;
+    private boolean hasValue;
+
+    DoubleValue(DoublePublisher publisher, ToDoubleFunction<Object> getter) {
+      this.publisher = publisher;
+      this.getter = getter;
+    }
+
+    @Override
+    int publish(Object parent) {
+      double value;
+      try {
+        value = getter.applyAsDouble(parent);
+      } catch (RuntimeException e) {
+        // Already reported by the log variable
+        return 0;
+      }
+
+      long bits = Double.doubleToLongBits(value);
+      if (hasValue && bits == prevBits) return 0;
+
+      publisher.set(value);
+      prevBits = bits;
+      hasValue = true;
+      return OVERHEAD_BYTES + 8;
+    }
+  }
+
+  private static final class LongValue extends TelemetryValue {
+    private final IntegerPublisher       publisher;
+    private final ToLongFunction<Object> getter;
+
+    private long    prevValue;
+    private boolean hasValue;
+
+    LongValue(IntegerPublisher publisher, ToLongFunction<Object> getter) {
+      this.publisher = publisher;
+      this.getter = getter;
+    }
+
+    @Override
+    int publish(Object parent) {
+      long value;
+      try {
+        value = getter.applyAsLong(parent);
+      } catch (RuntimeException e) {
+        return 0;
+      }
+      if (hasValue && value == prevValue) return 0;
+
+      publisher.set(value);
+      prevValue = value;
+      hasValue = true;
+      return OVERHEAD_BYTES + 8;
+    }
+  }
+
+  private static final class BooleanValue extends TelemetryValue {
+    private final BooleanPublisher  publisher;
+    private final Predicate<Object> getter;
+
+    private boolean prevValue;
+    private boolean hasValue;
+
+    BooleanValue(BooleanPublisher publisher, Predicate<Object> getter) {
+      this.publisher = publisher;
+      this.getter = getter;
+    }
+
+    @Override
+    int publish(Object parent) {
+      boolean value;
+      try {
+        value = getter.test(parent);
+      } catch (RuntimeException e) {
+        return 0;
+      }
+      if (hasValue && value == prevValue) return 0;
+
+      publisher.set(value);
+      prevValue = value;
+      hasValue = true;
+      return OVERHEAD_BYTES + 1;
+    }
+  }
+
+  /**
+   * A value of a built-in object type, compared in the same way as the log
+   * variable compares it. Null values aren't sent, so the last value remains.
+   */
+  private static final class ObjectValue extends TelemetryValue {
+    private final LogType               type;
+    private final UnaryOperator<Object> getter;
+    private final ToIntFunction<Object> sender;
+    private final ArraySnapshot         snapshot;
+
+    private Object prevValue;
+
+    ObjectValue(LogType type, UnaryOperator<Object> getter, ToIntFunction<Object> sender) {
+      this.type = type;
+      this.getter = getter;
+      this.sender = sender;
+      this.snapshot = ArraySnapshot.isSupported(type) ? new ArraySnapshot() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int publish(Object parent) {
+      Object value;
+      try {
+        value = getter.apply(parent);
+      } catch (RuntimeException e) {
+        return 0;
+      }
+      if (value == null) return 0;
+
+      if (snapshot != null) {
+        if (snapshot.matches(value)) return 0;
+        snapshot.update(value);
+      } else {
+        if (prevValue != null && type.equals.test(prevValue, value)) return 0;
+        prevValue = value;
+      }
+      return OVERHEAD_BYTES + sender.applyAsInt(value);
+    }
+  }
+}
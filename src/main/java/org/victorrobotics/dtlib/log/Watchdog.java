@@ -1,36 +1,175 @@
 package org.victorrobotics.dtlib.log;
 
 import org.victorrobotics.dtlib.DTRobot;
+import org.victorrobotics.dtlib.dashboard.DTDash;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * Times the parts of each robot cycle, and prints them if the cycle overruns.
+ * <p>
+ * Epochs are registered once, and each registration returns an ID. Recording
+ * an epoch only stores its ID, duration and allocated bytes in preallocated
+ * arrays, so nothing is allocated while the robot runs. An epoch may be
+ * registered for a whole kind of object, such as every command's
+ * {@code execute()}, and then recorded along with the object it ran for.
+ * Labels are only built when printed.
+ * <p>
+ * The durations of each epoch are also collected into a histogram for each
+ * object name. Objects should be registered with
+ * {@link #registerSubject(int, Object)} before they are first recorded, which
+ * looks up their name once and creates their statistics. Objects recorded
+ * without being registered, or recorded as null, are collected together
+ * under {@code unregistered<suffix>}. Their 50th, 90th and 99th
+ * percentiles and maximum are published to the log and DTDash once per
+ * second, under {@code Watchdog/<label>}, along with the average number of
+ * bytes allocated per run over the last second. Garbage collections are
+ * published under {@code Watchdog/gc}. Allocations can only be measured on
+ * HotSpot-based JVMs.
+ */
 public final class Watchdog {
-  private static class Epoch {
-    private final String label;
-    private final long   duration;
+  private static final long MIN_PRINT_DELAY = 1_000_000;
+  private static final long DEFAULT_TIMEOUT = (long) (0.02 * 1e6);
+  private static final long STATS_PERIOD    = 1_000_000;
+
+  private static final double[] STAT_PERCENTILES = { 50, 90, 99, 100 };
+  private static final String[] STAT_NAMES       = { "p50", "p90", "p99", "max", "allocBytes" };
+  private static final String[] GC_STAT_NAMES    = { "count", "pauseMillis", "maxPauseMillis" };
+
+  private static final int ALLOC_STAT = STAT_PERCENTILES.length;
 
-    Epoch(String label, long durationMicros) {
+  /** Values published together under one label */
+  private static class StatsGroup {
+    final String   label;
+    final String[] names;
+    final double[] values;
+
+    LogVariable[]     variables;
+    DoublePublisher[] publishers;
+
+    StatsGroup(String label, String[] names) {
       this.label = label;
-      this.duration = durationMicros;
+      this.names = names;
+      values = new double[names.length];
     }
   }
 
-  private static final long MIN_PRINT_DELAY = 1_000_000;
-  private static final long DEFAULT_TIMEOUT = (long) (0.02 * 1e6);
+  /** Duration distribution and allocations of an epoch, for one object name */
+  private static final class EpochStats extends StatsGroup {
+    final LatencyHistogram histogram = new LatencyHistogram();
 
-  private static final List<Epoch> EPOCHS = new ArrayList<>();
+    long windowBytes;
+    int  windowCount;
+
+    EpochStats(String label) {
+      super(label, AllocationMonitor.isSupported() ? STAT_NAMES
+          : Arrays.copyOf(STAT_NAMES, ALLOC_STAT));
+    }
+  }
+
+  private static final List<String>                   LABELS      = new ArrayList<>();
+  private static final List<Function<Object, String>> NAMERS      = new ArrayList<>();
+  private static final Map<String, Integer>           LABEL_IDS   = new HashMap<>();
+  private static final List<EpochStats>               STATS       = new ArrayList<>();
+  private static final List<Map<String, EpochStats>>  NAMED_STATS = new ArrayList<>();
+  private static final List<Map<Object, EpochStats>>  SUBJECTS    = new ArrayList<>();
+  private static final List<EpochStats>               ALL_STATS   = new ArrayList<>();
+  private static final StatsGroup                     GC_STATS    =
+      new StatsGroup("gc", GC_STAT_NAMES);
+
+  private static int[]    epochIDs       = new int[64];
+  private static Object[] epochSubjects  = new Object[64];
+  private static long[]   epochDurations = new long[64];
+  private static long[]   epochBytes     = new long[64];
+  private static int      epochCount;
 
   private static long period = DEFAULT_TIMEOUT;
 
   private static long epochStartTime;
+  private static long epochStartBytes;
   private static long loopStartTime;
+  private static long loopStartCollections;
   private static long loopExpireTime;
   private static long minPrintTime;
+  private static long nextStatsTime;
+
+  private static Object epochEvent;
+
+  private static NetworkTable statsTable;
+  private static boolean      resetStatsPerMode;
 
   private Watchdog() {}
 
+  /**
+   * Registers an epoch with a fixed label. Registering the same label again
+   * returns the same ID.
+   *
+   * @param label the label to print
+   * @return the epoch ID, to pass to {@link #addEpoch(int)}
+   */
+  public static int registerEpoch(String label) {
+    return LABEL_IDS.computeIfAbsent(label, l -> register(l, null));
+  }
+
+  /**
+   * Registers an epoch for a kind of object. Its label is the name of the
+   * object it was recorded for followed by the suffix, such as
+   * {@code "Drive.periodic()"}.
+   *
+   * @param <T> the type of object
+   * @param namer gets the name of an object, called once when the object is
+   *        registered
+   * @param suffix the text to follow the name
+   * @return the epoch ID, to pass to {@link #addEpoch(int, Object)}
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> int registerEpoch(Function<? super T, String> namer, String suffix) {
+    return register(suffix, (Function<Object, String>) namer);
+  }
+
+  private static int register(String label, Function<Object, String> namer) {
+    LABELS.add(label);
+    NAMERS.add(namer);
+    NAMED_STATS.add(namer == null ? null : new HashMap<>());
+    // Subjects are only held while still in use elsewhere
+    SUBJECTS.add(namer == null ? null : new WeakHashMap<>());
+    STATS.add(createStats(namer == null ? label : "unregistered" + label));
+    return LABELS.size() - 1;
+  }
+
+  /**
+   * Registers an object that an epoch will be recorded for, so that recording
+   * it doesn't need to look up its name or allocate its statistics. Objects
+   * with the same name share statistics. An object's name is only looked up
+   * the first time it is registered. This should be called outside of timed
+   * code, as it may allocate.
+   *
+   * @param epochID the ID returned by {@link #registerEpoch(Function, String)}
+   * @param subject the object the epoch will be run for
+   */
+  public static void registerSubject(int epochID, Object subject) {
+    Map<Object, EpochStats> subjects = SUBJECTS.get(epochID);
+    if (subjects == null || subject == null || subjects.containsKey(subject)) return;
+
+    String name = NAMERS.get(epochID)
+                        .apply(subject);
+    EpochStats stats = NAMED_STATS.get(epochID)
+                                  .computeIfAbsent(name,
+                                                   n -> createStats(n + LABELS.get(epochID)));
+    subjects.put(subject, stats);
+  }
+
   public static double getTime() {
     return (DTRobot.currentTimeMicros() - loopStartTime) * 1e-6;
   }
@@ -43,13 +182,78 @@ public final class Watchdog {
     loopStartTime = DTRobot.currentTimeMicros();
     loopExpireTime = loopStartTime + period;
     epochStartTime = loopStartTime;
-    EPOCHS.clear();
+    epochEvent = FlightRecorderEvents.beginPhase();
+    epochStartBytes = AllocationMonitor.getAllocatedBytes();
+    loopStartCollections = AllocationMonitor.getCollectionCount();
+    // Don't keep last cycle's objects alive
+    Arrays.fill(epochSubjects, 0, epochCount, null);
+    epochCount = 0;
   }
 
+  /**
+   * Ends the current epoch. Registering labels in advance with
+   * {@link #registerEpoch(String)} is preferred, as this must look up the
+   * label every time.
+   */
   public static void addEpoch(String label) {
+    addEpoch(registerEpoch(label), null);
+  }
+
+  public static void addEpoch(int epochID) {
+    addEpoch(epochID, null);
+  }
+
+  /**
+   * Ends the current epoch, run for an object.
+   *
+   * @param epochID the ID returned by {@link #registerEpoch(Function, String)}
+   * @param subject the object the epoch was run for
+   */
+  public static void addEpoch(int epochID, Object subject) {
     long time = DTRobot.currentTimeMicros();
-    EPOCHS.add(new Epoch(label, time - epochStartTime));
+    long bytes = AllocationMonitor.getAllocatedBytes();
+    if (epochCount == epochIDs.length) {
+      int capacity = epochCount * 2;
+      epochIDs = Arrays.copyOf(epochIDs, capacity);
+      epochSubjects = Arrays.copyOf(epochSubjects, capacity);
+      epochDurations = Arrays.copyOf(epochDurations, capacity);
+      epochBytes = Arrays.copyOf(epochBytes, capacity);
+    }
+    epochIDs[epochCount] = epochID;
+    epochSubjects[epochCount] = subject;
+    epochDurations[epochCount] = time - epochStartTime;
+    epochBytes[epochCount] = bytes - epochStartBytes;
+    epochCount++;
+
+    EpochStats stats = getStats(epochID, subject);
+    stats.histogram.record(time - epochStartTime);
+    stats.windowBytes += bytes - epochStartBytes;
+    stats.windowCount++;
+    FlightRecorderEvents.endEpoch(epochEvent, epochID, subject, bytes - epochStartBytes);
+
     epochStartTime = time;
+    epochEvent = FlightRecorderEvents.beginPhase();
+    // Recording doesn't allocate, so the next epoch starts from this reading
+    epochStartBytes = bytes;
+  }
+
+  private static EpochStats getStats(int epochID, Object subject) {
+    Map<Object, EpochStats> subjects = SUBJECTS.get(epochID);
+    if (subjects == null || subject == null) return STATS.get(epochID);
+
+    // Registering here would allocate inside the timed loop
+    EpochStats stats = subjects.get(subject);
+    return stats != null ? stats : STATS.get(epochID);
+  }
+
+  private static EpochStats createStats(String label) {
+    EpochStats stats = new EpochStats(label);
+    ALL_STATS.add(stats);
+    if (statsTable != null) {
+      // Already publishing, so logging has been configured
+      initStats(stats);
+    }
+    return stats;
   }
 
   public static void printEpochs(Consumer<String> header, Consumer<String> details) {
@@ -57,26 +261,129 @@ public final class Watchdog {
     if (time < minPrintTime) return;
     minPrintTime = time + MIN_PRINT_DELAY;
 
-    header.accept("Loop Overrun: " + (time - loopStartTime) * 1e-6 + " seconds");
+    long collections = AllocationMonitor.getCollectionCount() - loopStartCollections;
+    header.accept("Loop Overrun: " + (time - loopStartTime) * 1e-6 + " seconds"
+        + (collections > 0 ? " (" + collections + " garbage collections)" : ""));
 
+    String[] labels = new String[epochCount];
     int labelLength = 0;
-    for (Epoch epoch : EPOCHS) {
-      int len = epoch.label.length();
+    for (int i = 0; i < epochCount; i++) {
+      labels[i] = getLabel(epochIDs[i], epochSubjects[i]);
+      int len = labels[i].length();
       if (len > labelLength) {
         labelLength = len;
       }
     }
 
-    String format = "%-" + labelLength + "s - %.6f%n";
+    boolean showBytes = AllocationMonitor.isSupported();
+    String format = "%-" + labelLength + (showBytes ? "s - %.6f - %d bytes%n" : "s - %.6f%n");
     StringBuilder builder = new StringBuilder();
-    EPOCHS.forEach(epoch -> builder.append(String.format(format, epoch.label,
-                                                         epoch.duration * 1e-6)));
+    for (int i = 0; i < epochCount; i++) {
+      builder.append(String.format(format, labels[i], epochDurations[i] * 1e-6, epochBytes[i]));
+    }
 
     details.accept(builder.toString());
   }
 
+  static String getLabel(int epochID, Object subject) {
+    Function<Object, String> namer = NAMERS.get(epochID);
+    if (namer == null || subject == null) return LABELS.get(epochID);
+    return namer.apply(subject) + LABELS.get(epochID);
+  }
+
+  /**
+   * Publishes the epoch and garbage collection statistics, if a second has
+   * passed since they were last published. Called by the robot once per cycle,
+   * while logging.
+   */
+  public static void publishStats() {
+    long time = DTRobot.currentTimeMicros();
+    if (time < nextStatsTime) return;
+    nextStatsTime = time + STATS_PERIOD;
+
+    for (int i = 0; i < ALL_STATS.size(); i++) {
+      EpochStats stats = ALL_STATS.get(i);
+      if (stats.histogram.getCount() == 0) continue;
+
+      for (int j = 0; j < ALLOC_STAT; j++) {
+        // Milliseconds
+        stats.values[j] = stats.histogram.getValueAtPercentile(STAT_PERCENTILES[j]) * 1e-3;
+      }
+      if (stats.values.length > ALLOC_STAT) {
+        stats.values[ALLOC_STAT] =
+            stats.windowCount == 0 ? 0 : (double) stats.windowBytes / stats.windowCount;
+        stats.windowBytes = 0;
+        stats.windowCount = 0;
+      }
+      publish(stats);
+    }
+
+    GC_STATS.values[0] = AllocationMonitor.getCollectionCount();
+    GC_STATS.values[1] = AllocationMonitor.getCollectionMillis();
+    GC_STATS.values[2] = AllocationMonitor.takeMaxCollectionMillis();
+    publish(GC_STATS);
+  }
+
+  private static void publish(StatsGroup stats) {
+    if (stats.variables == null) {
+      initStats(stats);
+    }
+
+    for (int i = 0; i < stats.values.length; i++) {
+      stats.publishers[i].set(stats.values[i]);
+      stats.variables[i].log(stats);
+    }
+  }
+
+  private static void initStats(StatsGroup stats) {
+    if (statsTable == null) {
+      statsTable = DTDash.getMainTable()
+                         .getSubTable("Watchdog");
+    }
+
+    NetworkTable table = statsTable.getSubTable(stats.label);
+    stats.variables = new LogVariable[stats.names.length];
+    stats.publishers = new DoublePublisher[stats.names.length];
+    boolean compressed = LogWriter.isDoubleCompressionEnabled();
+    int typeID = compressed ? XorEncoding.DOUBLE_TYPE_ID
+        : LogWriter.LOG_TYPES.get(double.class).id;
+    for (int i = 0; i < stats.names.length; i++) {
+      int index = i;
+      ToDoubleFunction<Object> getter = s -> ((StatsGroup) s).values[index];
+      stats.variables[i] = new DoubleLogVariable(typeID, "/Watchdog/" + stats.label + "/"
+          + stats.names[i], getter, compressed);
+      stats.publishers[i] = table.getDoubleTopic(stats.names[i])
+                                 .publish();
+    }
+  }
+
+  /**
+   * Publishes the epoch duration statistics one final time, then clears them.
+   */
+  public static void resetStats() {
+    nextStatsTime = 0;
+    publishStats();
+    for (EpochStats stats : ALL_STATS) {
+      stats.histogram.reset();
+    }
+  }
+
+  /**
+   * @param perMode whether the robot should reset the epoch duration
+   *        statistics whenever its mode changes, so that modes can be compared
+   */
+  public static void setResetStatsPerMode(boolean perMode) {
+    resetStatsPerMode = perMode;
+  }
+
+  public static boolean isResetStatsPerMode() {
+    return resetStatsPerMode;
+  }
+
   public static void startEpoch() {
     epochStartTime = DTRobot.currentTimeMicros();
+    epochEvent = FlightRecorderEvents.beginPhase();
+    epochStartBytes = AllocationMonitor.getAllocatedBytes();
   }
 
   public static boolean isExpired() {
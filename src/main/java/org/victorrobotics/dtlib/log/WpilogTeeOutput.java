@@ -0,0 +1,97 @@
+package org.victorrobotics.dtlib.log;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import org.victorrobotics.dtlib.log.reader.LogStream;
+import org.victorrobotics.dtlib.log.reader.WpilogConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Passes log data to another output, while converting it to a single .wpilog
+ * file named after the log. Conversion runs on whichever thread writes the
+ * data, which is the I/O thread if writing is asynchronous.
+ * <p>
+ * A failure to convert never affects the log itself. If a segment can't be
+ * decoded, such as when it contains values of a custom type, the rest of that
+ * segment is left out of the .wpilog file. If the .wpilog file can't be
+ * written, conversion stops.
+ */
+final class WpilogTeeOutput implements LogOutput {
+  private final LogOutput       output;
+  private final LogStream       stream;
+  private final WpilogConverter converter;
+
+  private boolean failed;
+
+  WpilogTeeOutput(LogOutput output, File directory, String baseName) throws IOException {
+    this.output = output;
+    stream = new LogStream();
+    converter = new WpilogConverter(FileChannel.open(new File(directory, baseName + ".wpilog").toPath(),
+                                                     WRITE, CREATE, TRUNCATE_EXISTING));
+  }
+
+  @Override
+  public void write(ByteBuffer data) throws IOException {
+    ByteBuffer copy = data.duplicate();
+    output.write(data);
+    if (failed) return;
+
+    try {
+      stream.write(copy);
+      converter.convert(stream.cursor());
+    } catch (IOException e) {
+      fail(e);
+    } catch (RuntimeException e) {
+      stream.skipSegment();
+      DriverStation.reportWarning("Skipping rest of log segment in .wpilog: " + e.getMessage(),
+                                  false);
+    }
+  }
+
+  @Override
+  public void nextSegment() throws IOException {
+    output.nextSegment();
+    if (failed) return;
+
+    stream.nextSegment();
+    try {
+      converter.flush();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void fail(IOException e) {
+    failed = true;
+    DriverStation.reportWarning("Failed to write .wpilog: " + e.getMessage(), false);
+  }
+
+  @Override
+  public boolean isNextSegmentReady() {
+    return output.isNextSegmentReady();
+  }
+
+  @Override
+  public long getSegmentLimit() {
+    return output.getSegmentLimit();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      output.close();
+    } finally {
+      if (!failed) {
+        converter.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.victorrobotics.dtlib.log;
+
+/**
+ * Encodes doubles as the XOR of their bits with a previous value, packing only
+ * the meaningful bits between the leading and trailing zeros of the result.
+ * Slowly changing values share most of their sign, exponent and high mantissa
+ * bits, so their XOR is mostly zeros.
+ * <p>
+ * Each value is written with {@link LogWriter#writeBits(long, int)} as one of:
+ * <ul>
+ * <li>{@code 0}: the value is unchanged</li>
+ * <li>{@code 10}: the meaningful bits fit within the previous window, and are
+ * written using its position and length</li>
+ * <li>{@code 11}: a new window, given as 5 bits of leading zeros and 6 bits of
+ * length (0 meaning 64), followed by the meaningful bits</li>
+ * </ul>
+ * A window is packed into an {@code int} as {@code (leading << 8) | trailing}.
+ */
+final class XorEncoding {
+  /** Type ID of a compressed {@code double} */
+  static final int DOUBLE_TYPE_ID       = 0x31;
+  /** Type ID of a compressed {@code double[]} */
+  static final int DOUBLE_ARRAY_TYPE_ID = 0x32;
+
+  /** The window state before the first value, forcing a new window */
+  static final int NO_WINDOW = -1;
+
+  private XorEncoding() {}
+
+  /**
+   * Writes the XOR of a value with its predecessor.
+   *
+   * @param writer the log writer
+   * @param xor the XOR of the value's bits with the previous value's bits
+   * @param window the current window
+   * @return the window to use for the next value
+   */
+  static int writeXor(LogWriter writer, long xor, int window) {
+    if (xor == 0) {
+      writer.writeBits(0b0, 1);
+      return window;
+    }
+
+    int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+    int trailing = Long.numberOfTrailingZeros(xor);
+
+    if (window != NO_WINDOW) {
+      int prevLeading = window >>> 8;
+      int prevTrailing = window & 0xFF;
+      if (leading >= prevLeading && trailing >= prevTrailing) {
+        writer.writeBits(0b10, 2)
+              .writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+        return window;
+      }
+    }
+
+    int length = 64 - leading - trailing;
+    writer.writeBits(0b11, 2)
+          .writeBits(leading, 5)
+          .writeBits(length, 6)
+          .writeBits(xor >>> trailing, length);
+    return (leading << 8) | trailing;
+  }
+}
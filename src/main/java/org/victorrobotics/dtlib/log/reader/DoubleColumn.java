@@ -0,0 +1,33 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * The values of a single variable extracted from a log, with the timestamp of
+ * each in milliseconds.
+ */
+public final class DoubleColumn {
+  private final long[]   timestamps;
+  private final double[] values;
+
+  DoubleColumn(long[] timestamps, double[] values) {
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @return the timestamps, in ascending order (not copied)
+   */
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * @return the values (not copied)
+   */
+  public double[] getValues() {
+    return values;
+  }
+}
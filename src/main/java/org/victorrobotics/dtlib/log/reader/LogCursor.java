@@ -0,0 +1,748 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BOOLEAN;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BOOLEAN_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BYTE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BYTE_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.CHAR;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.CHAR_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.DOUBLE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.DOUBLE_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.FLOAT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.FLOAT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.INT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.INT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.LONG;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.LONG_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.SHORT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.SHORT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.STRING;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.XOR_DOUBLE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.XOR_DOUBLE_ARRAY;
+
+import org.victorrobotics.dtlib.DTRobot;
+import org.victorrobotics.dtlib.log.DTLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Steps through the records of a log in order, decoding them directly from
+ * the mapped file. Nothing is allocated per record, except when reading
+ * strings and declaring variables.
+ * <p>
+ * After {@link #next()} returns true, the cursor is positioned on a record,
+ * and the getters for that record's type may be used. Values remain readable
+ * until the cursor is moved again. A cursor is not thread-safe, but several
+ * cursors may read the same log at once.
+ * <p>
+ * A cursor from a {@link LogStream} reads data as it is written instead.
+ * There, {@link #next()} returns false when the next record hasn't been
+ * completely written yet, and may be called again once more data is written.
+ */
+public final class LogCursor {
+  private static final int NO_WINDOW = -1;
+
+  private static final DTRobot.Mode[] MODES  = DTRobot.Mode.values();
+  private static final DTLog.Level[]  LEVELS = DTLog.Level.values();
+
+  /** Decoding state of a variable, since its latest declaration */
+  private static final class Handle {
+    final LogVariableInfo variable;
+
+    long   xorBits;
+    int    xorWindow  = NO_WINDOW;
+    long[] xorArray   = new long[0];
+    long[] xorScratch = new long[0];
+    int    xorLength;
+
+    Handle(LogVariableInfo variable) {
+      this.variable = variable;
+    }
+  }
+
+  private final LogReader    reader;
+  private final List<Handle> handles;
+  private final boolean      streaming;
+
+  private int        segmentIndex;
+  private ByteBuffer buffer;
+  private LogHeader  header;
+  private int        position;
+
+  private long timestamp;
+  private long timeIncrement;
+  private int  modeIdentifier = -1;
+
+  private ByteBuffer messageData;
+  private int[]      messageOffsets;
+  private int        messageCount;
+  private boolean    segmentEnded;
+
+  private RecordType recordType;
+  private int        recordOffset;
+  private int        identifier;
+  private Handle     handle;
+  private ByteBuffer valueBuffer;
+  private int        valueOffset;
+  private int        valueLength;
+  private int        occurrences;
+
+  private long bitPosition;
+  private int  window;
+
+  LogCursor(LogReader reader) {
+    this(reader, false);
+  }
+
+  LogCursor(LogReader reader, boolean streaming) {
+    this.reader = reader;
+    this.streaming = streaming;
+    handles = new ArrayList<>();
+    messageData = ByteBuffer.allocate(1024);
+    messageOffsets = new int[16];
+    segmentIndex = -1;
+    if (streaming) {
+      buffer = ByteBuffer.allocate(64 * 1024)
+                         .limit(0);
+    }
+  }
+
+  /**
+   * Advances to the next record.
+   *
+   * @return whether the cursor is on a record, or false if the end of the log
+   *           was reached
+   * @throws IllegalStateException if a record could not be decoded, such as a
+   *         value of an unknown custom type
+   */
+  public boolean next() {
+    if (streaming) return nextStreamed();
+
+    while (true) {
+      if (buffer == null || position + 2 > buffer.limit()) {
+        if (!nextSegment()) {
+          recordType = null;
+          return false;
+        }
+      }
+
+      try {
+        if (readRecord() && position <= buffer.limit()) return true;
+      } catch (IndexOutOfBoundsException e) {
+        // Truncated final record, segment wasn't closed cleanly
+      }
+      position = buffer.limit();
+    }
+  }
+
+  private boolean nextStreamed() {
+    recordType = null;
+    if (segmentEnded) return false;
+    if (header == null) {
+      if (buffer.limit() < LogHeader.LENGTH) return false;
+
+      try {
+        header = LogHeader.read(buffer);
+      } catch (IOException e) {
+        throw new IllegalStateException("stream is not a log", e);
+      }
+      segmentIndex++;
+      position = LogHeader.LENGTH;
+    }
+
+    if (position + 2 > buffer.limit()) return false;
+
+    try {
+      if (!readRecord()) {
+        // Only the index follows
+        segmentEnded = true;
+        recordType = null;
+        return false;
+      }
+      if (position <= buffer.limit()) return true;
+    } catch (IndexOutOfBoundsException e) {
+      // Record is incomplete
+    }
+
+    // Wait for the rest of the record
+    position = recordOffset;
+    recordType = null;
+    return false;
+  }
+
+  /**
+   * Appends data written to a stream, discarding records already read.
+   */
+  void append(ByteBuffer data) {
+    if (segmentEnded) {
+      data.position(data.limit());
+      return;
+    }
+
+    int keep = buffer.limit() - position;
+    int capacity = keep + data.remaining();
+    if (capacity > buffer.capacity()) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+      larger.put(buffer.position(position));
+      buffer = larger;
+    } else {
+      buffer.position(position)
+            .compact();
+    }
+    buffer.put(data)
+          .flip();
+    recordOffset -= position;
+    position = 0;
+  }
+
+  /**
+   * Prepares to read the next segment of a stream, which starts with its own
+   * header.
+   */
+  void endSegment() {
+    buffer.clear()
+          .limit(0);
+    header = null;
+    position = 0;
+    handles.clear();
+    messageCount = 0;
+    timeIncrement = -1;
+    modeIdentifier = -1;
+    segmentEnded = false;
+    recordType = null;
+  }
+
+  /**
+   * Ignores the rest of the current segment of a stream, such as after a value
+   * of an unknown type.
+   */
+  void skipSegment() {
+    segmentEnded = true;
+    position = buffer.limit();
+    recordType = null;
+  }
+
+  private boolean nextSegment() {
+    if (segmentIndex + 1 >= reader.getSegmentCount()) return false;
+
+    seek(segmentIndex + 1, LogHeader.LENGTH);
+    return true;
+  }
+
+  /**
+   * Moves to the start of a segment or a checkpoint. The mode is unknown until
+   * the next mode record.
+   *
+   * @param segment the segment index
+   * @param offset the offset of the first record to read
+   */
+  void seek(int segment, int offset) {
+    segmentIndex = segment;
+    buffer = reader.getSegment(segment);
+    header = reader.getHeader(segment);
+    position = offset;
+    handles.clear();
+    messageCount = 0;
+    timeIncrement = -1;
+    modeIdentifier = -1;
+    recordType = null;
+  }
+
+  /**
+   * Decodes the record at the current position.
+   *
+   * @return whether a record was found, or false at the end of the segment
+   */
+  private boolean readRecord() {
+    recordOffset = position;
+    identifier = buffer.getShort(position) & 0xFFFF;
+    position += 2;
+    handle = null;
+
+    if (identifier == 0x0000) {
+      int handleID = buffer.getShort(position) & 0xFFFF;
+      position += 2;
+      if (handleID == 0x0000) return false; // End of data
+
+      handle = getHandle(handleID);
+      recordType = RecordType.NULL_VALUE;
+    } else if (identifier == 0x0001) {
+      timeIncrement = buffer.getShort(position) & 0xFFFF;
+      position += 2;
+      timestamp += timeIncrement;
+      recordType = RecordType.TIMESTAMP;
+    } else if (identifier == 0x0002) {
+      long high = buffer.getShort(position) & 0xFFFFL;
+      long low = buffer.getInt(position + 2) & 0xFFFF_FFFFL;
+      position += 6;
+      timestamp = (high << 32) | low;
+      timeIncrement = -1;
+      recordType = RecordType.TIMESTAMP;
+    } else if (identifier <= 0x0007) {
+      modeIdentifier = identifier;
+      recordType = RecordType.MODE;
+    } else if (identifier <= 0x000B) {
+      valueBuffer = buffer;
+      valueOffset = position + 2;
+      valueLength = buffer.getShort(position) & 0xFFFF;
+      position = valueOffset + valueLength;
+      occurrences = 1;
+      recordType = RecordType.MESSAGE;
+    } else if (identifier == 0x000C) {
+      if (timeIncrement < 0) {
+        throw new IllegalStateException("TIME_REPEAT without a previous increment at "
+            + recordOffset);
+      }
+      timestamp += timeIncrement;
+      recordType = RecordType.TIMESTAMP;
+    } else if (identifier == 0x000D) {
+      long high = buffer.getShort(position) & 0xFFFFL;
+      long low = buffer.getInt(position + 2) & 0xFFFF_FFFFL;
+      position += 6;
+      timestamp = (high << 32) | low;
+      timeIncrement = -1;
+      handles.clear();
+      messageCount = 0;
+      recordType = RecordType.CHECKPOINT;
+    } else if (identifier == 0x000E) {
+      // Index, at the end of a segment unless the writer failed to start the
+      // next one and continued this one
+      long end = position + 10L * buffer.getInt(position) + 12;
+      if (end + 2 > buffer.limit()) return false;
+
+      position = (int) end;
+      return readRecord();
+    } else if (identifier == 0x000F) {
+      int messageID = buffer.getShort(position) & 0xFFFF;
+      if (messageID != messageCount) {
+        throw new IllegalStateException("out of order message " + messageID + " at "
+            + recordOffset);
+      }
+      int length = buffer.getShort(position + 2) & 0xFFFF;
+      storeMessage(position + 4, length);
+      position += 4 + length;
+      // Declarations aren't visible, continue to the occurrence
+      return readRecord();
+    } else if (identifier <= 0x0013) {
+      int messageID = buffer.getShort(position) & 0xFFFF;
+      if (messageID >= messageCount) {
+        throw new IllegalStateException("undeclared message " + messageID + " at "
+            + recordOffset);
+      }
+      occurrences = buffer.getInt(position + 2);
+      position += 6;
+      valueBuffer = messageData;
+      valueOffset = messageOffsets[messageID] + 2;
+      valueLength = messageData.getShort(messageOffsets[messageID]) & 0xFFFF;
+      recordType = RecordType.MESSAGE;
+    } else if (identifier < 0x0020) {
+      throw new IllegalStateException("unknown identifier " + identifier + " at " + recordOffset);
+    } else if (identifier < 0x0100) {
+      int length = buffer.getShort(position) & 0xFFFF;
+      byte[] path = new byte[length];
+      buffer.get(position + 2, path);
+      position += 2 + length;
+      handle = new Handle(reader.getVariable(new String(path, StandardCharsets.UTF_8),
+                                             identifier));
+      handles.add(handle);
+      recordType = RecordType.DECLARATION;
+    } else {
+      if (identifier - 0x0100 >= handles.size() && LogHeader.isHeaderAt(buffer, recordOffset)) {
+        // Data for a segment the writer failed to start, undecodable here
+        return false;
+      }
+      handle = getHandle(identifier);
+      valueOffset = position;
+      valueLength = readValue(handle);
+      position += valueLength;
+      recordType = RecordType.VALUE;
+    }
+    return true;
+  }
+
+  /**
+   * Copies the text of a declared message, so that it remains readable after
+   * the data around it is discarded by a stream.
+   */
+  private void storeMessage(int offset, int length) {
+    int start = messageCount == 0 ? 0
+        : messageOffsets[messageCount - 1] + 2
+            + (messageData.getShort(messageOffsets[messageCount - 1]) & 0xFFFF);
+    if (start + 2 + length > messageData.capacity()) {
+      ByteBuffer larger =
+          ByteBuffer.allocate(Math.max(start + 2 + length, messageData.capacity() * 2));
+      larger.put(0, messageData, 0, start);
+      messageData = larger;
+    }
+    messageData.putShort(start, (short) length)
+               .put(start + 2, buffer, offset, length);
+
+    if (messageCount == messageOffsets.length) {
+      messageOffsets = Arrays.copyOf(messageOffsets, messageCount * 2);
+    }
+    messageOffsets[messageCount++] = start;
+  }
+
+  private Handle getHandle(int handleID) {
+    int index = handleID - 0x0100;
+    if (index < 0 || index >= handles.size()) {
+      throw new IllegalStateException("undeclared handle " + handleID + " at " + recordOffset);
+    }
+    return handles.get(index);
+  }
+
+  /**
+   * Determines the length of a value, decoding compressed values into the
+   * variable's state.
+   */
+  private int readValue(Handle var) {
+    int typeID = var.variable.getTypeID();
+    switch (typeID) {
+      case BOOLEAN, BYTE:
+        return 1;
+      case CHAR, SHORT:
+        return 2;
+      case FLOAT, INT:
+        return 4;
+      case DOUBLE, LONG:
+        return 8;
+      case BOOLEAN_ARRAY:
+        return 2 + (getArrayLength(valueOffset) + 7) / 8;
+      case BYTE_ARRAY, STRING:
+        return 2 + getArrayLength(valueOffset);
+      case CHAR_ARRAY, SHORT_ARRAY:
+        return 2 + 2 * getArrayLength(valueOffset);
+      case INT_ARRAY:
+        return 2 + 4 * getArrayLength(valueOffset);
+      case FLOAT_ARRAY:
+        return 2 + getFloatElementBytes() * getArrayLength(valueOffset);
+      case DOUBLE_ARRAY, LONG_ARRAY:
+        return 2 + 8 * getArrayLength(valueOffset);
+      case XOR_DOUBLE:
+        bitPosition = (long) valueOffset << 3;
+        window = var.xorWindow;
+        var.xorBits = readXor(var.xorBits);
+        var.xorWindow = window;
+        return bitLength();
+      case XOR_DOUBLE_ARRAY:
+        return readXorArray(var);
+      default:
+        int geometryLength = TypeIDs.getGeometryLength(typeID);
+        if (geometryLength > 0) return 8 * geometryLength;
+
+        ValueSizer sizer = reader.getSizer(typeID);
+        if (sizer == null) {
+          throw new IllegalStateException("unknown type " + typeID + " of " + var.variable);
+        }
+        return sizer.sizeOf(buffer, valueOffset);
+    }
+  }
+
+  private int readXorArray(Handle var) {
+    int length = getArrayLength(valueOffset);
+    long[] prev = var.xorArray;
+    if (prev.length < length) {
+      prev = Arrays.copyOf(prev, length);
+      var.xorArray = prev;
+      var.xorScratch = new long[length];
+    }
+    for (int i = var.xorLength; i < length; i++) {
+      prev[i] = 0;
+    }
+
+    // Decode into scratch space, so an incomplete value leaves no trace
+    long[] next = var.xorScratch;
+    bitPosition = (long) (valueOffset + 2) << 3;
+    window = NO_WINDOW;
+    for (int i = 0; i < length; i++) {
+      next[i] = readXor(prev[i]);
+    }
+    var.xorArray = next;
+    var.xorScratch = prev;
+    var.xorLength = length;
+    return bitLength();
+  }
+
+  private long readXor(long prevBits) {
+    if (readBits(1) == 0) return prevBits;
+
+    int leading;
+    int trailing;
+    if (readBits(1) == 0) {
+      if (window == NO_WINDOW) {
+        throw new IllegalStateException("XOR value without a window at " + recordOffset);
+      }
+      leading = window >>> 8;
+      trailing = window & 0xFF;
+    } else {
+      leading = (int) readBits(5);
+      int length = (int) readBits(6);
+      if (length == 0) {
+        length = 64;
+      }
+      trailing = 64 - leading - length;
+      window = (leading << 8) | trailing;
+    }
+    return prevBits ^ (readBits(64 - leading - trailing) << trailing);
+  }
+
+  private long readBits(int count) {
+    long value = 0;
+    while (count > 0) {
+      int bitIndex = (int) (bitPosition & 7);
+      int available = 8 - bitIndex;
+      int n = Math.min(available, count);
+      int b = buffer.get((int) (bitPosition >>> 3)) & 0xFF;
+      value = (value << n) | ((b >>> (available - n)) & ((1 << n) - 1));
+      bitPosition += n;
+      count -= n;
+    }
+    return value;
+  }
+
+  private int bitLength() {
+    return (int) (((bitPosition + 7) >>> 3) - valueOffset);
+  }
+
+  private int getArrayLength(int offset) {
+    return buffer.getShort(offset) & 0xFFFF;
+  }
+
+  public RecordType getRecordType() {
+    return recordType;
+  }
+
+  /**
+   * @return the raw 2-byte identifier of the current record
+   */
+  public int getIdentifier() {
+    return identifier;
+  }
+
+  /**
+   * @return the byte offset of the current record within its segment
+   */
+  public int getRecordOffset() {
+    return recordOffset;
+  }
+
+  public int getSegmentIndex() {
+    return segmentIndex;
+  }
+
+  /**
+   * @return the header of the current segment
+   */
+  public LogHeader getHeader() {
+    return header;
+  }
+
+  /**
+   * @return the timestamp of the current record, in milliseconds
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return the robot's mode as of the current record, or null if unknown
+   */
+  public DTRobot.Mode getMode() {
+    return modeIdentifier < 0 ? null : MODES[modeIdentifier - 0x0003];
+  }
+
+  /**
+   * @return the variable of the current value, null value or declaration
+   */
+  public LogVariableInfo getVariable() {
+    return handle == null ? null : handle.variable;
+  }
+
+  /**
+   * @return the level of the current message
+   */
+  public DTLog.Level getMessageLevel() {
+    checkRecordType(RecordType.MESSAGE);
+    return LEVELS[(identifier - 0x0008) & 0x7];
+  }
+
+  /**
+   * @return the number of times the current message has been logged so far,
+   *           or 1 if the writer didn't keep count
+   */
+  public int getOccurrenceCount() {
+    checkRecordType(RecordType.MESSAGE);
+    return occurrences;
+  }
+
+  /**
+   * @return the text of the current message or string value
+   */
+  public String getString() {
+    if (recordType == RecordType.MESSAGE) {
+      return getString(valueBuffer, valueOffset, valueLength);
+    }
+    checkValueType(STRING);
+    return getString(buffer, valueOffset + 2, getArrayLength(valueOffset));
+  }
+
+  private static String getString(ByteBuffer source, int offset, int length) {
+    byte[] data = new byte[length];
+    source.get(offset, data);
+    return new String(data, StandardCharsets.UTF_8);
+  }
+
+  public boolean getBoolean() {
+    checkValueType(BOOLEAN);
+    return buffer.get(valueOffset) != 0;
+  }
+
+  /**
+   * @return the current value, which must be of an integral type or boolean
+   */
+  public long getLong() {
+    checkRecordType(RecordType.VALUE);
+    return switch (handle.variable.getTypeID()) {
+      case BOOLEAN, BYTE -> buffer.get(valueOffset);
+      case CHAR -> buffer.getChar(valueOffset);
+      case SHORT -> buffer.getShort(valueOffset);
+      case INT -> buffer.getInt(valueOffset);
+      case LONG -> buffer.getLong(valueOffset);
+      default -> throw new IllegalStateException(handle.variable + " is not an integral type");
+    };
+  }
+
+  /**
+   * @return the current value, which must be of a numeric type or boolean
+   */
+  public double getDouble() {
+    checkRecordType(RecordType.VALUE);
+    return switch (handle.variable.getTypeID()) {
+      case DOUBLE -> buffer.getDouble(valueOffset);
+      case FLOAT -> buffer.getFloat(valueOffset);
+      case XOR_DOUBLE -> Double.longBitsToDouble(handle.xorBits);
+      default -> getLong();
+    };
+  }
+
+  /**
+   * @return the length of the current array value, or the number of doubles
+   *           in a geometry value
+   */
+  public int getArrayLength() {
+    checkRecordType(RecordType.VALUE);
+    int typeID = handle.variable.getTypeID();
+    int geometryLength = TypeIDs.getGeometryLength(typeID);
+    if (geometryLength > 0) return geometryLength;
+    if (typeID < BOOLEAN_ARRAY || typeID > SHORT_ARRAY && typeID != XOR_DOUBLE_ARRAY) {
+      throw new IllegalStateException(handle.variable + " is not an array");
+    }
+    return getArrayLength(valueOffset);
+  }
+
+  public boolean getBoolean(int index) {
+    checkValueType(BOOLEAN_ARRAY);
+    checkIndex(index);
+    return (buffer.get(valueOffset + 2 + (index >> 3)) & (1 << (index & 7))) != 0;
+  }
+
+  /**
+   * @param index the array index
+   * @return an element of the current array, which must be of an integral type
+   */
+  public long getLong(int index) {
+    checkIndex(index);
+    int offset = valueOffset + 2;
+    return switch (handle.variable.getTypeID()) {
+      case BYTE_ARRAY -> buffer.get(offset + index);
+      case CHAR_ARRAY -> buffer.getChar(offset + 2 * index);
+      case SHORT_ARRAY -> buffer.getShort(offset + 2 * index);
+      case INT_ARRAY -> buffer.getInt(offset + 4 * index);
+      case LONG_ARRAY -> buffer.getLong(offset + 8 * index);
+      default -> throw new IllegalStateException(handle.variable + " is not an integral array");
+    };
+  }
+
+  /**
+   * @param index the array index
+   * @return an element of the current array, which must be of a numeric type,
+   *           or of the current geometry value (e.g. x, y and angle in radians
+   *           of a {@code Pose2d})
+   */
+  public double getDouble(int index) {
+    checkIndex(index);
+    int offset = valueOffset + 2;
+    int typeID = handle.variable.getTypeID();
+    if (TypeIDs.getGeometryLength(typeID) > 0) return buffer.getDouble(valueOffset + 8 * index);
+    return switch (typeID) {
+      case DOUBLE_ARRAY -> buffer.getDouble(offset + 8 * index);
+      case FLOAT_ARRAY -> getFloatElementBytes() == 4 ? buffer.getFloat(offset + 4 * index)
+          : buffer.getDouble(offset + 8 * index);
+      case XOR_DOUBLE_ARRAY -> Double.longBitsToDouble(handle.xorArray[index]);
+      default -> getLong(index);
+    };
+  }
+
+  /**
+   * @return the size of each element of a float array, which was 8 bytes in
+   *           logs written before the format flag was introduced
+   */
+  private int getFloatElementBytes() {
+    return (header.getFormatFlags() & LogHeader.FORMAT_FLOAT_ARRAYS) != 0 ? 4 : 8;
+  }
+
+  /**
+   * Copies the current array into a destination array.
+   *
+   * @param dst the destination, which must be at least
+   *        {@link #getArrayLength()} elements long
+   * @return the number of elements copied
+   */
+  public int getDoubles(double[] dst) {
+    int length = getArrayLength();
+    for (int i = 0; i < length; i++) {
+      dst[i] = getDouble(i);
+    }
+    return length;
+  }
+
+  /**
+   * @return the segment's data, for decoding custom types. The value occupies
+   *           {@link #getValueLength()} bytes from {@link #getValueOffset()}.
+   */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  public int getValueOffset() {
+    return valueOffset;
+  }
+
+  public int getValueLength() {
+    return valueLength;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= getArrayLength()) {
+      throw new IndexOutOfBoundsException(index);
+    }
+  }
+
+  private void checkValueType(int typeID) {
+    checkRecordType(RecordType.VALUE);
+    if (handle.variable.getTypeID() != typeID) {
+      throw new IllegalStateException(handle.variable + " has type " + handle.variable.getTypeID());
+    }
+  }
+
+  private void checkRecordType(RecordType type) {
+    if (recordType != type) {
+      throw new IllegalStateException("cursor is on a " + recordType + " record");
+    }
+  }
+}
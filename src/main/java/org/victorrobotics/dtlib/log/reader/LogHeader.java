@@ -0,0 +1,111 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The metadata at the start of each log segment.
+ */
+public final class LogHeader {
+  /** The length of the header in bytes */
+  public static final int LENGTH = 36;
+
+  /** Format flag: doubles may be XOR-encoded, and timestamps may repeat */
+  public static final int FORMAT_XOR_DOUBLES      = 0x00000001;
+  /** Format flag: data after the header is divided into compressed frames */
+  public static final int FORMAT_BLOCK_COMPRESSED = 0x00000002;
+  /** Format flag: float[] elements are 4 bytes, rather than 8 */
+  public static final int FORMAT_FLOAT_ARRAYS     = 0x00000004;
+
+  private static final byte[] MAGIC_BYTES = "DTLib Logger".getBytes(StandardCharsets.UTF_8);
+
+  private final int  dtlibVersion;
+  private final int  wpilibVersion;
+  private final int  teamNumber;
+  private final long startTime;
+  private final int  formatFlags;
+
+  private LogHeader(int dtlibVersion, int wpilibVersion, int teamNumber, long startTime,
+                    int formatFlags) {
+    this.dtlibVersion = dtlibVersion;
+    this.wpilibVersion = wpilibVersion;
+    this.teamNumber = teamNumber;
+    this.startTime = startTime;
+    this.formatFlags = formatFlags;
+  }
+
+  /**
+   * @return whether a header starts at the given offset, such as one a writer
+   *           left inside a segment after failing to start the next
+   */
+  static boolean isHeaderAt(ByteBuffer buffer, int offset) {
+    if (offset + MAGIC_BYTES.length > buffer.limit()) return false;
+
+    for (int i = 0; i < MAGIC_BYTES.length; i++) {
+      if (buffer.get(offset + i) != MAGIC_BYTES[i]) return false;
+    }
+    return true;
+  }
+
+  static LogHeader read(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < LENGTH) {
+      throw new IOException("file is too short to be a log");
+    }
+
+    for (int i = 0; i < MAGIC_BYTES.length; i++) {
+      if (buffer.get(i) != MAGIC_BYTES[i]) {
+        throw new IOException("not a DTLib log file");
+      }
+    }
+
+    int checksum = 0;
+    for (int i = 0; i < LENGTH; i += 4) {
+      checksum ^= buffer.getInt(i);
+    }
+    if (checksum != 0) {
+      throw new IOException("log header checksum mismatch");
+    }
+
+    long teamAndTime = buffer.getLong(20);
+    return new LogHeader(buffer.getInt(12), buffer.getInt(16), (int) (teamAndTime >>> 48),
+                         teamAndTime & 0xFFFF_FFFF_FFFFL, buffer.getInt(28));
+  }
+
+  /**
+   * @return the version of DTLib that wrote the log, as "year.major.minor"
+   */
+  public String getDTLibVersion() {
+    return formatVersion(dtlibVersion);
+  }
+
+  /**
+   * @return the version of WPILib the robot was using, as "year.major.minor"
+   */
+  public String getWPILibVersion() {
+    return formatVersion(wpilibVersion);
+  }
+
+  /**
+   * @return the robot's team number, or 0 if it was unknown
+   */
+  public int getTeamNumber() {
+    return teamNumber;
+  }
+
+  /**
+   * @return the system time the segment was started, in milliseconds since
+   *           the Unix epoch
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public int getFormatFlags() {
+    return formatFlags;
+  }
+
+  private static String formatVersion(int version) {
+    return (version >>> 16) + "." + ((version >> 8) & 0xFF) + "." + (version & 0xFF);
+  }
+}
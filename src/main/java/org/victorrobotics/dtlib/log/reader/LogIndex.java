@@ -0,0 +1,113 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The points in a log from which decoding can begin: the start of each
+ * segment, and each checkpoint. Entries are read from the index at the end of
+ * each segment, or found by decoding the segment if it wasn't closed cleanly.
+ */
+final class LogIndex {
+  private static final byte[] MAGIC_BYTES = "DTix".getBytes(StandardCharsets.UTF_8);
+
+  private long[] timestamps;
+  private int[]  segments;
+  private int[]  offsets;
+  private int    size;
+
+  LogIndex(LogReader reader) {
+    timestamps = new long[64];
+    segments = new int[64];
+    offsets = new int[64];
+
+    for (int segment = 0; segment < reader.getSegmentCount(); segment++) {
+      if (!readFooter(reader.getSegment(segment), segment)) {
+        scan(reader, segment);
+      }
+    }
+  }
+
+  private boolean readFooter(ByteBuffer buffer, int segment) {
+    int end = buffer.limit();
+    if (end < LogHeader.LENGTH + 14) return false;
+
+    for (int i = 0; i < MAGIC_BYTES.length; i++) {
+      if (buffer.get(end - MAGIC_BYTES.length + i) != MAGIC_BYTES[i]) return false;
+    }
+
+    int count = buffer.getInt(end - 8);
+    long start = end - 8 - 10L * count - 6;
+    if (count < 0 || start < LogHeader.LENGTH || buffer.getShort((int) start) != 0x000E
+        || buffer.getInt((int) start + 2) != count) {
+      return false;
+    }
+
+    int entry = (int) start + 6;
+    for (int i = 0; i < count; i++, entry += 10) {
+      long high = buffer.getShort(entry) & 0xFFFFL;
+      long low = buffer.getInt(entry + 2) & 0xFFFF_FFFFL;
+      add((high << 32) | low, segment, buffer.getInt(entry + 6));
+    }
+    return true;
+  }
+
+  /**
+   * Recovers the entries of a segment that has no index, such as one cut short
+   * by a power loss, by decoding it in full.
+   */
+  private void scan(LogReader reader, int segment) {
+    LogCursor cursor = reader.cursor();
+    cursor.seek(segment, LogHeader.LENGTH);
+
+    boolean started = false;
+    while (cursor.next() && cursor.getSegmentIndex() == segment) {
+      RecordType type = cursor.getRecordType();
+      if (!started && type == RecordType.TIMESTAMP) {
+        add(cursor.getTimestamp(), segment, LogHeader.LENGTH);
+        started = true;
+      } else if (type == RecordType.CHECKPOINT) {
+        add(cursor.getTimestamp(), segment, cursor.getRecordOffset());
+        started = true;
+      }
+    }
+  }
+
+  private void add(long timestamp, int segment, int offset) {
+    if (size == timestamps.length) {
+      timestamps = Arrays.copyOf(timestamps, size * 2);
+      segments = Arrays.copyOf(segments, size * 2);
+      offsets = Arrays.copyOf(offsets, size * 2);
+    }
+    timestamps[size] = timestamp;
+    segments[size] = segment;
+    offsets[size] = offset;
+    size++;
+  }
+
+  /**
+   * Positions a cursor at the latest entry at or before a timestamp, or the
+   * first entry if there is none.
+   */
+  void seek(LogCursor cursor, long timestamp) {
+    // Binary search for the first entry after the timestamp
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] <= timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    int entry = Math.max(low - 1, 0);
+    if (size == 0) {
+      cursor.seek(0, LogHeader.LENGTH);
+    } else {
+      cursor.seek(segments[entry], offsets[entry]);
+    }
+  }
+}
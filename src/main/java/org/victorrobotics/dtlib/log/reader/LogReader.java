@@ -0,0 +1,347 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads .dtlog files written by {@code LogWriter}. Each file is memory-mapped,
+ * and decoded in place by {@link LogCursor cursors}, so logs of any size can
+ * be read without loading them into memory. This has no dependency on robot
+ * hardware, and may be used on any computer.
+ * <p>
+ * Block-compressed segments are decompressed into temporary files when the
+ * log is opened, and then read in the same way.
+ * <p>
+ * Values of custom types can't be decoded without knowing their size, so
+ * their types must be {@link #defineType(int, ValueSizer) defined} before
+ * reading.
+ */
+public final class LogReader {
+  private static final int MIN_COLUMN_CAPACITY = 1024;
+  private static final int FRAME_HEADER_BYTES  = 12;
+
+  private final ByteBuffer[] segments;
+  private final LogHeader[]  headers;
+
+  private final Map<String, LogVariableInfo> variables;
+  private final Map<Integer, ValueSizer>     customTypes;
+
+  private int      variableCount;
+  private boolean  scanned;
+  private LogIndex index;
+
+  /**
+   * Opens a log consisting of one or more segment files, which are read in
+   * the given order.
+   *
+   * @param segmentFiles the segment files
+   * @throws IOException if a file can't be read, or isn't a log
+   */
+  public LogReader(List<Path> segmentFiles) throws IOException {
+    segments = new ByteBuffer[segmentFiles.size()];
+    headers = new LogHeader[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = map(segmentFiles.get(i));
+      headers[i] = LogHeader.read(segments[i]);
+      if ((headers[i].getFormatFlags() & LogHeader.FORMAT_BLOCK_COMPRESSED) != 0) {
+        segments[i] = inflate(segments[i]);
+      }
+    }
+
+    variables = new LinkedHashMap<>();
+    customTypes = new HashMap<>();
+  }
+
+  /**
+   * Creates a reader without segments, which only keeps track of the variables
+   * and custom types of a {@link LogStream}.
+   */
+  LogReader() {
+    segments = new ByteBuffer[0];
+    headers = new LogHeader[0];
+    variables = new LinkedHashMap<>();
+    customTypes = new HashMap<>();
+  }
+
+  /**
+   * Opens a log file. If the log was split into segments, and this is the
+   * first, the following segments in the same directory are read as well.
+   *
+   * @param file the log file
+   * @return the reader
+   * @throws IOException if a file can't be read, or isn't a log
+   */
+  public static LogReader open(Path file) throws IOException {
+    List<Path> segmentFiles = new ArrayList<>();
+    segmentFiles.add(file);
+
+    String name = file.getFileName()
+                      .toString();
+    if (name.endsWith(".dtlog")) {
+      String baseName = name.substring(0, name.length() - ".dtlog".length());
+      for (int i = 1;; i++) {
+        Path segment = file.resolveSibling(String.format("%s_%03d.dtlog", baseName, i));
+        if (!Files.isRegularFile(segment)) break;
+        segmentFiles.add(segment);
+      }
+    }
+    return new LogReader(segmentFiles);
+  }
+
+  private static ByteBuffer map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large, split logs into segments instead");
+      }
+      // Mapping remains valid after the channel is closed
+      return channel.map(MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+  /**
+   * Decompresses a block-compressed segment into a temporary file, which is
+   * then mapped in its place. Decompression stops at the first frame that is
+   * incomplete or fails its checksum, as if the segment ended there.
+   */
+  private static ByteBuffer inflate(ByteBuffer compressed) throws IOException {
+    Path tempFile = Files.createTempFile("dtlog", ".tmp");
+    tempFile.toFile()
+            .deleteOnExit();
+
+    Inflater inflater = new Inflater();
+    CRC32C checksum = new CRC32C();
+    ByteBuffer block = ByteBuffer.allocateDirect(64 * 1024);
+    try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE)) {
+      channel.write(compressed.slice(0, LogHeader.LENGTH));
+
+      int position = LogHeader.LENGTH;
+      int end = compressed.limit();
+      while (position + FRAME_HEADER_BYTES <= end) {
+        int compressedLength = compressed.getInt(position);
+        int length = compressed.getInt(position + 4);
+        if (compressedLength <= 0 || length < 0
+            || compressedLength > end - position - FRAME_HEADER_BYTES) {
+          break;
+        }
+
+        ByteBuffer data = compressed.slice(position + FRAME_HEADER_BYTES, compressedLength);
+        checksum.reset();
+        checksum.update(data.duplicate());
+        if ((int) checksum.getValue() != compressed.getInt(position + 8)) break;
+
+        if (block.capacity() < length) {
+          block = ByteBuffer.allocateDirect(length);
+        }
+        block.clear()
+             .limit(length);
+        inflater.reset();
+        inflater.setInput(data);
+        try {
+          while (block.hasRemaining() && inflater.inflate(block) > 0) {
+            // Inflate until the block is complete
+          }
+        } catch (DataFormatException e) {
+          break;
+        }
+
+        block.flip();
+        while (block.hasRemaining()) {
+          channel.write(block);
+        }
+        position += FRAME_HEADER_BYTES + compressedLength;
+      }
+
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("segment is too large when decompressed");
+      }
+      return channel.map(MapMode.READ_ONLY, 0, size);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Defines a custom type with values of a constant size.
+   *
+   * @param typeID the type ID, from 0x80 to 0xFF
+   * @param sizeBytes the size of each encoded value
+   */
+  public void defineType(int typeID, int sizeBytes) {
+    defineType(typeID, ValueSizer.constant(sizeBytes));
+  }
+
+  /**
+   * Defines a custom type, whose values' sizes are determined by their
+   * contents.
+   *
+   * @param typeID the type ID, from 0x80 to 0xFF
+   * @param sizer determines the size of each encoded value
+   */
+  public void defineType(int typeID, ValueSizer sizer) {
+    if (typeID < 0x80 || typeID > 0xFF) {
+      throw new IllegalArgumentException("custom type IDs range from 0x80 to 0xFF");
+    }
+    customTypes.put(typeID, sizer);
+  }
+
+  /**
+   * @return a new cursor, positioned before the first record
+   */
+  public LogCursor cursor() {
+    return new LogCursor(this);
+  }
+
+  /**
+   * Creates a cursor that will read from the latest checkpoint at or before a
+   * timestamp, found by binary search. The cursor may return records from up
+   * to one checkpoint interval before the timestamp. The index is loaded from
+   * the end of each segment the first time this is called, or rebuilt by
+   * decoding any segment that wasn't closed cleanly.
+   *
+   * @param timestamp the timestamp to seek to, in milliseconds
+   * @return a new cursor, positioned before the checkpoint
+   */
+  public LogCursor seek(long timestamp) {
+    if (index == null) {
+      index = new LogIndex(this);
+    }
+    LogCursor cursor = cursor();
+    index.seek(cursor, timestamp);
+    return cursor;
+  }
+
+  /**
+   * @return the header of the first segment
+   */
+  public LogHeader getHeader() {
+    return headers[0];
+  }
+
+  public int getSegmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Finds every variable declared in the log, reading it in full the first
+   * time this is called.
+   *
+   * @return the variables, in order of first declaration
+   */
+  public Collection<LogVariableInfo> getVariables() {
+    if (!scanned) {
+      LogCursor cursor = cursor();
+      while (cursor.next()) {
+        // Declarations are registered as they are read
+      }
+      scanned = true;
+    }
+    return Collections.unmodifiableCollection(variables.values());
+  }
+
+  /**
+   * Extracts every value of a numeric variable. Null values are skipped.
+   *
+   * @param path the variable's path
+   * @return the variable's timestamps and values
+   */
+  public DoubleColumn readDoubles(String path) {
+    LogCursor cursor = cursor();
+    long[] timestamps = new long[MIN_COLUMN_CAPACITY];
+    double[] values = new double[MIN_COLUMN_CAPACITY];
+    int size = 0;
+
+    LogVariableInfo target = null;
+    while (cursor.next()) {
+      RecordType type = cursor.getRecordType();
+      if (type == RecordType.DECLARATION && target == null && path.equals(cursor.getVariable()
+                                                                                .getPath())) {
+        target = cursor.getVariable();
+      } else if (type == RecordType.VALUE && cursor.getVariable() == target) {
+        if (size == values.length) {
+          timestamps = Arrays.copyOf(timestamps, size * 2);
+          values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = cursor.getTimestamp();
+        values[size] = cursor.getDouble();
+        size++;
+      }
+    }
+    return new DoubleColumn(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+  }
+
+  /**
+   * Extracts every value of an integral or boolean variable. Null values are
+   * skipped.
+   *
+   * @param path the variable's path
+   * @return the variable's timestamps and values
+   */
+  public LongColumn readLongs(String path) {
+    LogCursor cursor = cursor();
+    long[] timestamps = new long[MIN_COLUMN_CAPACITY];
+    long[] values = new long[MIN_COLUMN_CAPACITY];
+    int size = 0;
+
+    LogVariableInfo target = null;
+    while (cursor.next()) {
+      RecordType type = cursor.getRecordType();
+      if (type == RecordType.DECLARATION && target == null && path.equals(cursor.getVariable()
+                                                                                .getPath())) {
+        target = cursor.getVariable();
+      } else if (type == RecordType.VALUE && cursor.getVariable() == target) {
+        if (size == values.length) {
+          timestamps = Arrays.copyOf(timestamps, size * 2);
+          values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = cursor.getTimestamp();
+        values[size] = cursor.getLong();
+        size++;
+      }
+    }
+    return new LongColumn(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+  }
+
+  ByteBuffer getSegment(int index) {
+    return segments[index];
+  }
+
+  LogHeader getHeader(int index) {
+    return headers[index];
+  }
+
+  ValueSizer getSizer(int typeID) {
+    return customTypes.get(typeID);
+  }
+
+  /**
+   * @return the variable with the given path, created on its first
+   *           declaration
+   */
+  LogVariableInfo getVariable(String path, int typeID) {
+    LogVariableInfo variable = variables.get(path);
+    if (variable == null || variable.getTypeID() != typeID) {
+      variable = new LogVariableInfo(path, typeID, variableCount++);
+      variables.put(path, variable);
+    }
+    return variable;
+  }
+}
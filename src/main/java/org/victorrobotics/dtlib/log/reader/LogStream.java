@@ -0,0 +1,74 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes a log while it is being written, from the same blocks of data that
+ * are written to its files. Blocks may end in the middle of a record, which is
+ * read once the rest of it is written. Only data that hasn't been read yet is
+ * kept, so a stream of any length is decoded in constant memory.
+ * <p>
+ * Data must be written before block compression is applied.
+ */
+public final class LogStream {
+  private final LogReader reader;
+  private final LogCursor cursor;
+
+  public LogStream() {
+    reader = new LogReader();
+    cursor = new LogCursor(reader, true);
+  }
+
+  /**
+   * Defines a custom type with values of a constant size.
+   *
+   * @see LogReader#defineType(int, int)
+   */
+  public void defineType(int typeID, int sizeBytes) {
+    reader.defineType(typeID, sizeBytes);
+  }
+
+  /**
+   * Defines a custom type, whose values' sizes are determined by their
+   * contents.
+   *
+   * @see LogReader#defineType(int, ValueSizer)
+   */
+  public void defineType(int typeID, ValueSizer sizer) {
+    reader.defineType(typeID, sizer);
+  }
+
+  /**
+   * Appends data to the current segment. Values read from the cursor are no
+   * longer valid afterwards.
+   *
+   * @param data the data, all of which is consumed
+   */
+  public void write(ByteBuffer data) {
+    cursor.append(data);
+  }
+
+  /**
+   * Ends the current segment. The next data written starts a new segment with
+   * its own header.
+   */
+  public void nextSegment() {
+    cursor.endSegment();
+  }
+
+  /**
+   * Ignores the rest of the current segment, such as after the cursor fails to
+   * decode a record.
+   */
+  public void skipSegment() {
+    cursor.skipSegment();
+  }
+
+  /**
+   * @return the cursor reading this stream, which is positioned before the
+   *           first record that hasn't been read
+   */
+  public LogCursor cursor() {
+    return cursor;
+  }
+}
@@ -0,0 +1,307 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A precomputed summary of every numeric variable in a log, for plotting any
+ * window of a long log at screen resolution without decoding it. The summary
+ * is stored in a sidecar file next to the log ({@code .dtsum}), built in a
+ * single pass over the log by {@link #build(LogReader, Path)}, or by
+ * {@code LogWriter} when it closes.
+ * <p>
+ * Each variable's samples are reduced to the min, max, time-weighted mean and
+ * sample count of fixed time buckets, at several resolutions: buckets are
+ * {@value #BASE_BUCKET_MILLIS} ms wide at the finest level, and each level's
+ * are {@value #LEVEL_FACTOR} times wider than the last. Buckets in which a
+ * variable wasn't logged aren't stored, since it held its previous value
+ * throughout. Boolean, character and numeric variables are summarized; null
+ * and NaN values are skipped.
+ * <p>
+ * Queries are answered from the finest level that fits the requested number
+ * of points, reading only the buckets in the window from the memory-mapped
+ * file. Windows too short for the finest level should be read from the log
+ * itself.
+ */
+public final class LogSummary {
+  static final int MAGIC   = 0x4454736D; // DTsm
+  static final int VERSION = 1;
+
+  static final int BASE_BUCKET_MILLIS = 100;
+  static final int LEVEL_FACTOR       = 4;
+  static final int LEVEL_COUNT        = 8;
+
+  static final int CHUNK_BUCKETS = 64;
+  static final int BUCKET_BYTES  = 40;
+
+  private static final int HEADER_BYTES = 28;
+
+  private final ByteBuffer            data;
+  private final long                  startTime;
+  private final long                  endTime;
+  private final long[]                bucketWidths;
+  private final Map<String, Levels[]> variables;
+
+  private LogSummary(ByteBuffer data) throws IOException {
+    this.data = data;
+    if (data.limit() < HEADER_BYTES + 8 || data.getInt(0) != MAGIC) {
+      throw new IOException("not a log summary");
+    }
+    if (data.getInt(4) != VERSION) {
+      throw new IOException("unsupported summary version " + data.getInt(4));
+    }
+
+    int baseWidth = data.getInt(8);
+    int factor = data.getInt(12);
+    int levelCount = data.getInt(16);
+    startTime = data.getLong(20);
+    bucketWidths = new long[levelCount];
+    for (int i = 0; i < levelCount; i++) {
+      bucketWidths[i] = i == 0 ? baseWidth : bucketWidths[i - 1] * factor;
+    }
+
+    ByteBuffer directory = data.duplicate()
+                               .position((int) data.getLong(data.limit() - 8));
+    endTime = directory.getLong();
+    int variableCount = directory.getInt();
+    variables = new LinkedHashMap<>();
+    for (int i = 0; i < variableCount; i++) {
+      String path = readUTF(directory);
+      directory.getInt(); // Type ID
+
+      Levels[] levels = new Levels[levelCount];
+      for (int j = 0; j < levelCount; j++) {
+        int bucketCount = directory.getInt();
+        int[] chunkOffsets = new int[directory.getInt()];
+        for (int k = 0; k < chunkOffsets.length; k++) {
+          chunkOffsets[k] = (int) directory.getLong();
+        }
+        levels[j] = new Levels(bucketCount, chunkOffsets);
+      }
+      variables.put(path, levels);
+    }
+  }
+
+  private static String readUTF(ByteBuffer buffer) {
+    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(bytes);
+    // Paths are plain identifiers, modified UTF-8 only differs for NUL
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Opens a summary file.
+   *
+   * @param file the summary file
+   * @return the summary
+   * @throws IOException if the file can't be read, or isn't a summary
+   */
+  public static LogSummary open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large");
+      }
+      return new LogSummary(channel.map(MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /**
+   * Opens the summary of a log, building it first if it doesn't exist or is
+   * older than the log.
+   *
+   * @param log the log's first segment
+   * @return the summary
+   * @throws IOException if the log or summary can't be read or written
+   */
+  public static LogSummary forLog(Path log) throws IOException {
+    Path file = getSummaryPath(log);
+    if (!Files.isRegularFile(file) || Files.getLastModifiedTime(file)
+                                           .compareTo(Files.getLastModifiedTime(log)) < 0) {
+      build(LogReader.open(log), file);
+    }
+    return open(file);
+  }
+
+  /**
+   * @param log a log's first segment
+   * @return the path of its summary, with the extension replaced by
+   *           {@code .dtsum}
+   */
+  public static Path getSummaryPath(Path log) {
+    String name = log.getFileName()
+                     .toString();
+    if (name.endsWith(".dtlog")) {
+      name = name.substring(0, name.length() - ".dtlog".length());
+    }
+    return log.resolveSibling(name + ".dtsum");
+  }
+
+  /**
+   * Summarizes a log in a single pass, and writes the summary to a file. The
+   * file is written under a temporary name and then moved into place, so it
+   * is never left incomplete.
+   *
+   * @param reader the log to summarize
+   * @param file the summary file
+   * @throws IOException if the file can't be written
+   */
+  public static void build(LogReader reader, Path file) throws IOException {
+    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream output = Files.newOutputStream(tempFile)) {
+      build(reader.cursor(), output);
+    }
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Summarizes the records read by a cursor in a single pass.
+   *
+   * @param cursor the cursor, which is read to the end
+   * @param output where to write the summary, which isn't closed
+   * @throws IOException if the output can't be written
+   */
+  public static void build(LogCursor cursor, OutputStream output) throws IOException {
+    new SummaryBuilder(output).build(cursor);
+  }
+
+  static boolean isSummarized(int typeID) {
+    return typeID >= TypeIDs.BOOLEAN && typeID <= TypeIDs.SHORT || typeID == TypeIDs.XOR_DOUBLE;
+  }
+
+  /**
+   * @return the paths of the summarized variables
+   */
+  public Set<String> getPaths() {
+    return Collections.unmodifiableSet(variables.keySet());
+  }
+
+  /**
+   * @return the first timestamp in the log, in milliseconds
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * @return the last timestamp in the log, in milliseconds
+   */
+  public long getEndTime() {
+    return endTime;
+  }
+
+  /**
+   * Reduces a variable's values over a window of time to at most
+   * {@code maxPoints} buckets, from the finest level with few enough. Windows
+   * too long for even the coarsest level return more points. The window is
+   * limited to the span of the log.
+   *
+   * @param path the variable's path
+   * @param start the start of the window, in milliseconds
+   * @param end the end of the window (exclusive), in milliseconds
+   * @param maxPoints the maximum number of buckets to return
+   * @return the buckets overlapping the window
+   * @throws IllegalArgumentException if the variable isn't summarized
+   */
+  public SummarySeries query(String path, long start, long end, int maxPoints) {
+    Levels[] levels = variables.get(path);
+    if (levels == null) {
+      throw new IllegalArgumentException("no summary of " + path);
+    }
+    if (maxPoints <= 0) {
+      throw new IllegalArgumentException("must request at least one point");
+    }
+
+    start = Math.max(start, startTime);
+    end = Math.min(end, endTime + 1);
+    if (end <= start) return new SummarySeries(bucketWidths[0], 0);
+
+    int level = 0;
+    while (level < levels.length - 1 && getBucket(end - 1, level) - getBucket(start, level)
+        + 1 > maxPoints) {
+      level++;
+    }
+    long width = bucketWidths[level];
+    int firstBucket = getBucket(start, level);
+    int size = getBucket(end - 1, level) - firstBucket + 1;
+
+    Levels buckets = levels[level];
+    int position = buckets.search(firstBucket);
+    double carried = position > 0 ? buckets.getDouble(position - 1, 28) : Double.NaN;
+
+    SummarySeries series = new SummarySeries(width, size);
+    for (int i = 0; i < size; i++) {
+      int bucket = firstBucket + i;
+      long timestamp = startTime + bucket * width;
+      if (position < buckets.bucketCount && buckets.getIndex(position) == bucket) {
+        series.set(i, timestamp, buckets.getDouble(position, 4), buckets.getDouble(position, 12),
+                   buckets.getDouble(position, 20), buckets.getCount(position));
+        carried = buckets.getDouble(position, 28);
+        position++;
+      } else {
+        series.set(i, timestamp, carried, carried, carried, 0);
+      }
+    }
+    return series;
+  }
+
+  private int getBucket(long timestamp, int level) {
+    return (int) ((timestamp - startTime) / bucketWidths[level]);
+  }
+
+  /** The stored buckets of one variable at one level, in chunks */
+  private final class Levels {
+    final int   bucketCount;
+    final int[] chunkOffsets;
+
+    Levels(int bucketCount, int[] chunkOffsets) {
+      this.bucketCount = bucketCount;
+      this.chunkOffsets = chunkOffsets;
+    }
+
+    int getOffset(int position) {
+      return chunkOffsets[position / CHUNK_BUCKETS] + position % CHUNK_BUCKETS * BUCKET_BYTES;
+    }
+
+    int getIndex(int position) {
+      return data.getInt(getOffset(position));
+    }
+
+    double getDouble(int position, int field) {
+      return data.getDouble(getOffset(position) + field);
+    }
+
+    int getCount(int position) {
+      return data.getInt(getOffset(position) + 36);
+    }
+
+    /**
+     * @return the position of the first bucket at or after an index
+     */
+    int search(int index) {
+      int low = 0;
+      int high = bucketCount;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (getIndex(mid) < index) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * A variable found in a log. The same instance represents the variable in
+ * every segment it is declared in, even though its handle changes.
+ */
+public final class LogVariableInfo {
+  private final String path;
+  private final int    typeID;
+  private final int    index;
+
+  LogVariableInfo(String path, int typeID, int index) {
+    this.path = path;
+    this.typeID = typeID;
+    this.index = index;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public int getTypeID() {
+    return typeID;
+  }
+
+  /**
+   * @return a unique index for this variable within its reader, assigned in
+   *           order of first declaration
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -0,0 +1,33 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * The values of a single variable extracted from a log, with the timestamp of
+ * each in milliseconds.
+ */
+public final class LongColumn {
+  private final long[]   timestamps;
+  private final long[]   values;
+
+  LongColumn(long[] timestamps, long[] values) {
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @return the timestamps, in ascending order (not copied)
+   */
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * @return the values (not copied)
+   */
+  public long[] getValues() {
+    return values;
+  }
+}
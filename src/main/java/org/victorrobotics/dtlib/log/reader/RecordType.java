@@ -0,0 +1,39 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * The kinds of record a {@link LogCursor} can be positioned on.
+ */
+public enum RecordType {
+  /**
+   * A new value for a variable.
+   */
+  VALUE,
+  /**
+   * A variable being set to a null state.
+   */
+  NULL_VALUE,
+  /**
+   * A variable being declared, and assigned a handle in the current segment.
+   */
+  DECLARATION,
+  /**
+   * A change to the timestamp of following records.
+   */
+  TIMESTAMP,
+  /**
+   * A point from which the log can be decoded without reading anything before
+   * it. Sets the timestamp, and clears all variable handles. Every variable
+   * that is enabled is redeclared along with its current value in the same
+   * cycle, including those logged less often than every cycle, so a reader
+   * starting here has a value for each of them before the next timestamp.
+   */
+  CHECKPOINT,
+  /**
+   * A change in the robot's mode, or an emergency stop.
+   */
+  MODE,
+  /**
+   * A text message.
+   */
+  MESSAGE
+}
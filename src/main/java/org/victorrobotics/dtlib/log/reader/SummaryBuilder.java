@@ -0,0 +1,247 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import static org.victorrobotics.dtlib.log.reader.LogSummary.BASE_BUCKET_MILLIS;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.BUCKET_BYTES;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.CHUNK_BUCKETS;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.LEVEL_COUNT;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.LEVEL_FACTOR;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.MAGIC;
+import static org.victorrobotics.dtlib.log.reader.LogSummary.VERSION;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a {@link LogSummary} in a single pass over a log. Each level's
+ * buckets are written in chunks as they are completed, so memory use depends
+ * on the number of variables, not the length of the log. The offsets of every
+ * chunk are written in a directory at the end of the file.
+ */
+final class SummaryBuilder {
+  private final DataOutputStream output;
+  private final List<Variable>   declared;
+
+  private Variable[] variables;
+  private long       position;
+  private long       startTime;
+  private long       endTime;
+  private boolean    started;
+
+  SummaryBuilder(OutputStream output) {
+    this.output = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+    declared = new ArrayList<>();
+    variables = new Variable[64];
+  }
+
+  void build(LogCursor cursor) throws IOException {
+    while (cursor.next()) {
+      switch (cursor.getRecordType()) {
+        case TIMESTAMP, CHECKPOINT -> {
+          // A checkpoint carries the time of its cycle, such as the first
+          // cycle of each segment
+          if (!started) {
+            startTime = cursor.getTimestamp();
+            writeHeader();
+            started = true;
+          }
+          endTime = cursor.getTimestamp();
+        }
+        case DECLARATION -> declare(cursor.getVariable());
+        case VALUE -> {
+          int index = cursor.getVariable()
+                            .getIndex();
+          if (started && index < variables.length && variables[index] != null) {
+            variables[index].add(cursor.getTimestamp(), cursor.getDouble());
+          }
+        }
+        default -> {
+          // Not summarized
+        }
+      }
+    }
+
+    if (!started) {
+      writeHeader();
+    }
+    for (Variable variable : declared) {
+      variable.finish(endTime);
+    }
+    writeDirectory();
+    output.flush();
+  }
+
+  private void declare(LogVariableInfo info) {
+    int index = info.getIndex();
+    if (index >= variables.length) {
+      variables = Arrays.copyOf(variables, Math.max(index + 1, variables.length * 2));
+    }
+    if (variables[index] == null && LogSummary.isSummarized(info.getTypeID())) {
+      variables[index] = new Variable(info);
+      declared.add(variables[index]);
+    }
+  }
+
+  private void writeHeader() throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(BASE_BUCKET_MILLIS);
+    output.writeInt(LEVEL_FACTOR);
+    output.writeInt(LEVEL_COUNT);
+    output.writeLong(startTime);
+    // End time is in the directory, once it is known
+    position = 28;
+  }
+
+  private void writeDirectory() throws IOException {
+    long directoryOffset = position;
+    output.writeLong(endTime);
+    output.writeInt(declared.size());
+    for (Variable variable : declared) {
+      output.writeUTF(variable.info.getPath());
+      output.writeInt(variable.info.getTypeID());
+      for (Level level : variable.levels) {
+        output.writeInt(level.bucketCount);
+        output.writeInt(level.chunkCount);
+        for (int i = 0; i < level.chunkCount; i++) {
+          output.writeLong(level.chunkOffsets[i]);
+        }
+      }
+    }
+    output.writeLong(directoryOffset);
+  }
+
+  private void writeChunk(Level level) throws IOException {
+    if (level.chunkCount == level.chunkOffsets.length) {
+      level.chunkOffsets = Arrays.copyOf(level.chunkOffsets, level.chunkCount * 2);
+    }
+    level.chunkOffsets[level.chunkCount++] = position;
+    output.write(level.chunk.array(), 0, level.chunk.position());
+    position += level.chunk.position();
+    level.chunk.clear();
+  }
+
+  /** The last value of a variable, and its buckets at each level */
+  private final class Variable {
+    final LogVariableInfo info;
+    final Level[]         levels;
+
+    double  value;
+    long    time;
+    boolean hasValue;
+
+    Variable(LogVariableInfo info) {
+      this.info = info;
+      levels = new Level[LEVEL_COUNT];
+      long width = BASE_BUCKET_MILLIS;
+      for (int i = 0; i < LEVEL_COUNT; i++) {
+        levels[i] = new Level(width);
+        width *= LEVEL_FACTOR;
+      }
+    }
+
+    void add(long timestamp, double newValue) throws IOException {
+      if (Double.isNaN(newValue)) return;
+      timestamp = Math.max(timestamp, time);
+      for (Level level : levels) {
+        level.add(this, timestamp, newValue);
+      }
+      value = newValue;
+      time = timestamp;
+      hasValue = true;
+    }
+
+    void finish(long end) throws IOException {
+      for (Level level : levels) {
+        if (level.index < 0) continue;
+        level.finish(this, Math.max(time, Math.min(end, level.getStart(level.index + 1))));
+        if (level.chunk.position() > 0) {
+          writeChunk(level);
+        }
+      }
+    }
+  }
+
+  /** The buckets of one variable at one resolution */
+  private final class Level {
+    final long width;
+
+    ByteBuffer chunk;
+    long[]     chunkOffsets;
+    int        chunkCount;
+    int        bucketCount;
+
+    int    index = -1;
+    double min;
+    double max;
+    double integral;
+    long   covered;
+    int    count;
+
+    Level(long width) {
+      this.width = width;
+      chunkOffsets = new long[4];
+    }
+
+    long getStart(long bucket) {
+      return startTime + bucket * width;
+    }
+
+    void add(Variable variable, long timestamp, double newValue) throws IOException {
+      int bucket = (int) (Math.max(0, timestamp - startTime) / width);
+      if (bucket != index) {
+        if (index >= 0) {
+          finish(variable, getStart(index + 1));
+        }
+        index = bucket;
+        count = 0;
+        if (variable.hasValue) {
+          // The previous value is held from the start of the bucket
+          covered = Math.max(0, timestamp - getStart(bucket));
+          integral = variable.value * covered;
+          min = variable.value;
+          max = variable.value;
+        } else {
+          covered = 0;
+          integral = 0;
+          min = Double.POSITIVE_INFINITY;
+          max = Double.NEGATIVE_INFINITY;
+        }
+      } else if (variable.hasValue) {
+        covered += timestamp - variable.time;
+        integral += variable.value * (timestamp - variable.time);
+      }
+      min = Math.min(min, newValue);
+      max = Math.max(max, newValue);
+      count++;
+    }
+
+    /**
+     * Completes the current bucket, holding the last value until its end.
+     */
+    void finish(Variable variable, long end) throws IOException {
+      long held = end - variable.time;
+      covered += held;
+      integral += variable.value * held;
+
+      if (chunk == null) {
+        chunk = ByteBuffer.allocate(CHUNK_BUCKETS * BUCKET_BYTES);
+      }
+      chunk.putInt(index)
+           .putDouble(min)
+           .putDouble(max)
+           .putDouble(covered > 0 ? integral / covered : variable.value)
+           .putDouble(variable.value)
+           .putInt(count);
+      bucketCount++;
+      if (!chunk.hasRemaining()) {
+        writeChunk(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * A variable's values over a window of time, reduced to one point per time
+ * bucket by a {@link LogSummary}. Buckets without any samples hold the value
+ * carried in from before them, and buckets before the variable's first sample
+ * hold NaN.
+ */
+public final class SummarySeries {
+  private final long     bucketMillis;
+  private final long[]   timestamps;
+  private final double[] min;
+  private final double[] max;
+  private final double[] mean;
+  private final int[]    counts;
+
+  SummarySeries(long bucketMillis, int size) {
+    this.bucketMillis = bucketMillis;
+    timestamps = new long[size];
+    min = new double[size];
+    max = new double[size];
+    mean = new double[size];
+    counts = new int[size];
+  }
+
+  void set(int i, long timestamp, double min, double max, double mean, int count) {
+    timestamps[i] = timestamp;
+    this.min[i] = min;
+    this.max[i] = max;
+    this.mean[i] = mean;
+    counts[i] = count;
+  }
+
+  public int size() {
+    return timestamps.length;
+  }
+
+  /**
+   * @return the width of each bucket, in milliseconds
+   */
+  public long getBucketMillis() {
+    return bucketMillis;
+  }
+
+  /**
+   * @return the start of each bucket in milliseconds, in ascending order (not
+   *           copied)
+   */
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * @return the minimum value in each bucket (not copied)
+   */
+  public double[] getMin() {
+    return min;
+  }
+
+  /**
+   * @return the maximum value in each bucket (not copied)
+   */
+  public double[] getMax() {
+    return max;
+  }
+
+  /**
+   * @return the mean of each bucket, weighted by how long each value was held
+   *           (not copied)
+   */
+  public double[] getMean() {
+    return mean;
+  }
+
+  /**
+   * @return the number of samples logged in each bucket (not copied)
+   */
+  public int[] getCounts() {
+    return counts;
+  }
+}
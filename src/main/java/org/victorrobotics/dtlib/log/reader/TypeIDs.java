@@ -0,0 +1,58 @@
+package org.victorrobotics.dtlib.log.reader;
+
+/**
+ * Identifiers of the built-in types, matching {@code BuiltinLogTypes}.
+ */
+final class TypeIDs {
+  static final int BOOLEAN = 0x20;
+  static final int BYTE    = 0x21;
+  static final int CHAR    = 0x22;
+  static final int DOUBLE  = 0x23;
+  static final int FLOAT   = 0x24;
+  static final int INT     = 0x25;
+  static final int LONG    = 0x26;
+  static final int SHORT   = 0x27;
+
+  static final int BOOLEAN_ARRAY = 0x28;
+  static final int BYTE_ARRAY    = 0x29;
+  static final int CHAR_ARRAY    = 0x2A;
+  static final int DOUBLE_ARRAY  = 0x2B;
+  static final int FLOAT_ARRAY   = 0x2C;
+  static final int INT_ARRAY     = 0x2D;
+  static final int LONG_ARRAY    = 0x2E;
+  static final int SHORT_ARRAY   = 0x2F;
+
+  static final int STRING = 0x30;
+
+  static final int XOR_DOUBLE       = 0x31;
+  static final int XOR_DOUBLE_ARRAY = 0x32;
+
+  static final int ROTATION_2D    = 0x33;
+  static final int ROTATION_3D    = 0x34;
+  static final int TRANSLATION_2D = 0x35;
+  static final int TRANSLATION_3D = 0x36;
+  static final int POSE_2D        = 0x37;
+  static final int POSE_3D        = 0x38;
+  static final int TRANSFORM_2D   = 0x39;
+  static final int TRANSFORM_3D   = 0x3A;
+  static final int TWIST_2D       = 0x3B;
+  static final int TWIST_3D       = 0x3C;
+
+  /**
+   * @return the number of doubles in each value of a WPILib geometry type, or
+   *           0 if the type isn't one
+   */
+  static int getGeometryLength(int typeID) {
+    return switch (typeID) {
+      case ROTATION_2D -> 1;
+      case TRANSLATION_2D -> 2;
+      case TRANSLATION_3D, POSE_2D, TRANSFORM_2D, TWIST_2D -> 3;
+      case ROTATION_3D -> 4;
+      case TWIST_3D -> 6;
+      case POSE_3D, TRANSFORM_3D -> 7;
+      default -> 0;
+    };
+  }
+
+  private TypeIDs() {}
+}
@@ -0,0 +1,25 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Determines the encoded size of a custom type's values, so a reader can skip
+ * over them. Value records carry no length of their own.
+ */
+@FunctionalInterface
+public interface ValueSizer {
+  /**
+   * @param buffer the segment's data
+   * @param offset the index of the value's first byte
+   * @return the number of bytes in the encoded value
+   */
+  int sizeOf(ByteBuffer buffer, int offset);
+
+  /**
+   * @param sizeBytes the size of every encoded value
+   * @return a sizer for values of a constant size
+   */
+  static ValueSizer constant(int sizeBytes) {
+    return (buffer, offset) -> sizeBytes;
+  }
+}
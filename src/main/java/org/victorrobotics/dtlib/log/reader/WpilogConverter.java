@@ -0,0 +1,287 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BOOLEAN;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BOOLEAN_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BYTE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.BYTE_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.CHAR;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.CHAR_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.DOUBLE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.DOUBLE_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.FLOAT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.FLOAT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.INT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.INT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.LONG;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.LONG_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.SHORT;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.SHORT_ARRAY;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.STRING;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.XOR_DOUBLE;
+import static org.victorrobotics.dtlib.log.reader.TypeIDs.XOR_DOUBLE_ARRAY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Converts a log to WPILib's DataLog format (.wpilog), for tools such as
+ * AdvantageScope. Records are converted in a single pass as a cursor reads
+ * them, so logs of any length are converted in constant memory. The cursor may
+ * come from a {@link LogReader}, or from a {@link LogStream} to convert a log
+ * while it is written.
+ * <p>
+ * Each variable becomes an entry named by its path, started when it is first
+ * declared. Built-in types map to the closest DataLog type: integral types to
+ * {@code int64}, {@code byte[]} to {@code raw}, other arrays to arrays of the
+ * same kind, and geometry to the {@code double[]} of its components. Values of
+ * custom types are copied as {@code raw}, with their
+ * type ID in the entry's metadata. Null values have no equivalent, and are
+ * skipped. Messages are written to a {@code messages} entry, and mode changes
+ * to a {@code mode} entry.
+ * <p>
+ * Timestamps are converted to microseconds since the first timestamp in the
+ * log.
+ */
+public final class WpilogConverter implements Closeable {
+  private static final int MESSAGES_ENTRY    = 1;
+  private static final int MODE_ENTRY        = 2;
+  private static final int FIRST_VAR_ENTRY   = 3;
+
+  private final WpilogWriter writer;
+  private final BitSet       startedEntries;
+
+  private long    startTimestamp;
+  private boolean started;
+
+  /**
+   * @param channel where to write the converted log, closed when the
+   *        converter is closed
+   * @throws IOException if the header can't be written
+   */
+  public WpilogConverter(WritableByteChannel channel) throws IOException {
+    writer = new WpilogWriter(channel, "DTLog");
+    startedEntries = new BitSet();
+  }
+
+  /**
+   * Converts a complete log.
+   *
+   * @param reader the log to convert
+   * @param output the .wpilog file to create or replace
+   * @throws IOException if the output can't be written
+   */
+  public static void convert(LogReader reader, Path output) throws IOException {
+    try (WpilogConverter converter = new WpilogConverter(FileChannel.open(output,
+                                                                          StandardOpenOption.CREATE,
+                                                                          StandardOpenOption.WRITE,
+                                                                          StandardOpenOption.TRUNCATE_EXISTING))) {
+      converter.convert(reader.cursor());
+    }
+  }
+
+  /**
+   * Converts a complete log file, along with the segments following it.
+   *
+   * @param input the .dtlog file
+   * @param output the .wpilog file to create or replace
+   * @throws IOException if a file can't be read or written
+   */
+  public static void convert(Path input, Path output) throws IOException {
+    convert(LogReader.open(input), output);
+  }
+
+  /**
+   * Converts every record the cursor can read. For a stream, this may be
+   * called again after more data is written.
+   *
+   * @param cursor the cursor
+   * @throws IOException if the output can't be written
+   */
+  public void convert(LogCursor cursor) throws IOException {
+    while (cursor.next()) {
+      switch (cursor.getRecordType()) {
+        case DECLARATION -> startVariable(cursor);
+        case VALUE -> writeValue(cursor);
+        case MESSAGE -> writeMessage(cursor);
+        case MODE -> writeMode(cursor);
+        default -> {
+          // Timestamps are read from each record, nulls are skipped
+        }
+      }
+    }
+  }
+
+  private long getTimestampMicros(LogCursor cursor) {
+    if (!started) {
+      startTimestamp = cursor.getTimestamp();
+      started = true;
+    }
+    return Math.max(0, cursor.getTimestamp() - startTimestamp) * 1000;
+  }
+
+  private void startVariable(LogCursor cursor) throws IOException {
+    LogVariableInfo variable = cursor.getVariable();
+    int entry = FIRST_VAR_ENTRY + variable.getIndex();
+    if (startedEntries.get(entry)) return;
+
+    startedEntries.set(entry);
+    String type = getEntryType(variable.getTypeID());
+    String metadata = type.equals("raw") && variable.getTypeID() != BYTE_ARRAY
+        ? "{\"dtlogType\":" + variable.getTypeID() + "}"
+        : "";
+    writer.start(entry, variable.getPath(), type, metadata, getTimestampMicros(cursor));
+  }
+
+  private static String getEntryType(int typeID) {
+    return switch (typeID) {
+      case BOOLEAN -> "boolean";
+      case BYTE, CHAR, SHORT, INT, LONG -> "int64";
+      case FLOAT -> "float";
+      case DOUBLE, XOR_DOUBLE -> "double";
+      case STRING -> "string";
+      case BOOLEAN_ARRAY -> "boolean[]";
+      case CHAR_ARRAY, SHORT_ARRAY, INT_ARRAY, LONG_ARRAY -> "int64[]";
+      case FLOAT_ARRAY -> "float[]";
+      case DOUBLE_ARRAY, XOR_DOUBLE_ARRAY -> "double[]";
+      default -> TypeIDs.getGeometryLength(typeID) > 0 ? "double[]" : "raw";
+    };
+  }
+
+  private void writeValue(LogCursor cursor) throws IOException {
+    LogVariableInfo variable = cursor.getVariable();
+    int typeID = variable.getTypeID();
+    ByteBuffer buffer = cursor.getBuffer();
+    int offset = cursor.getValueOffset();
+    switch (typeID) {
+      case BOOLEAN -> {
+        writer.beginPayload(1);
+        writer.payload()
+              .put((byte) (cursor.getBoolean() ? 1 : 0));
+      }
+      case BYTE, CHAR, SHORT, INT, LONG -> {
+        writer.beginPayload(8);
+        writer.payload()
+              .putLong(cursor.getLong());
+      }
+      case FLOAT -> {
+        writer.beginPayload(4);
+        writer.payload()
+              .putFloat((float) cursor.getDouble());
+      }
+      case DOUBLE, XOR_DOUBLE -> {
+        writer.beginPayload(8);
+        writer.payload()
+              .putDouble(cursor.getDouble());
+      }
+      case STRING, BYTE_ARRAY -> {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        copyBytes(buffer, offset + 2, length);
+      }
+      case BOOLEAN_ARRAY -> {
+        int length = cursor.getArrayLength();
+        writer.beginPayload(length);
+        for (int i = 0; i < length; i++) {
+          writer.payload()
+                .put((byte) (cursor.getBoolean(i) ? 1 : 0));
+        }
+      }
+      case CHAR_ARRAY, SHORT_ARRAY, INT_ARRAY, LONG_ARRAY -> {
+        int length = cursor.getArrayLength();
+        writer.beginPayload(8 * length);
+        for (int i = 0; i < length; i++) {
+          writer.payload()
+                .putLong(cursor.getLong(i));
+        }
+      }
+      case FLOAT_ARRAY -> {
+        int length = cursor.getArrayLength();
+        writer.beginPayload(4 * length);
+        for (int i = 0; i < length; i++) {
+          writer.payload()
+                .putFloat((float) cursor.getDouble(i));
+        }
+      }
+      case DOUBLE_ARRAY, XOR_DOUBLE_ARRAY -> {
+        int length = cursor.getArrayLength();
+        writer.beginPayload(8 * length);
+        for (int i = 0; i < length; i++) {
+          writer.payload()
+                .putDouble(cursor.getDouble(i));
+        }
+      }
+      default -> {
+        int length = TypeIDs.getGeometryLength(typeID);
+        if (length > 0) {
+          // Geometry as the doubles it is made of
+          writer.beginPayload(8 * length);
+          for (int i = 0; i < length; i++) {
+            writer.payload()
+                  .putDouble(buffer.getDouble(offset + 8 * i));
+          }
+        } else {
+          copyBytes(buffer, offset, cursor.getValueLength());
+        }
+      }
+    }
+    writer.writeRecord(FIRST_VAR_ENTRY + variable.getIndex(), getTimestampMicros(cursor));
+  }
+
+  private void copyBytes(ByteBuffer buffer, int offset, int length) {
+    writer.beginPayload(length);
+    ByteBuffer payload = writer.payload();
+    payload.put(0, buffer, offset, length)
+           .position(length);
+  }
+
+  private void writeMessage(LogCursor cursor) throws IOException {
+    long timestamp = getTimestampMicros(cursor);
+    if (!startedEntries.get(MESSAGES_ENTRY)) {
+      startedEntries.set(MESSAGES_ENTRY);
+      writer.start(MESSAGES_ENTRY, "messages", "string", "", timestamp);
+    }
+
+    byte[] text = ("[" + cursor.getMessageLevel() + "] " + cursor.getString())
+        .getBytes(StandardCharsets.UTF_8);
+    writer.beginPayload(text.length);
+    writer.payload()
+          .put(text);
+    writer.writeRecord(MESSAGES_ENTRY, timestamp);
+  }
+
+  private void writeMode(LogCursor cursor) throws IOException {
+    long timestamp = getTimestampMicros(cursor);
+    if (!startedEntries.get(MODE_ENTRY)) {
+      startedEntries.set(MODE_ENTRY);
+      writer.start(MODE_ENTRY, "mode", "string", "", timestamp);
+    }
+
+    byte[] mode = cursor.getMode()
+                        .name()
+                        .getBytes(StandardCharsets.UTF_8);
+    writer.beginPayload(mode.length);
+    writer.payload()
+          .put(mode);
+    writer.writeRecord(MODE_ENTRY, timestamp);
+  }
+
+  /**
+   * Writes converted records to the channel.
+   *
+   * @throws IOException if the output can't be written
+   */
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
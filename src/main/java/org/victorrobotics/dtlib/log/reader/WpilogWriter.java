@@ -0,0 +1,125 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes records in WPILib's DataLog format (.wpilog, version 1.0). Each
+ * record's payload is built in a scratch buffer, then appended to an output
+ * buffer which is written to the channel whenever it fills. All values are
+ * little-endian.
+ */
+final class WpilogWriter implements Closeable {
+  private static final byte[] MAGIC   = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+  private static final short  VERSION = 0x0100;
+
+  private static final int CONTROL_ENTRY = 0;
+  private static final int CONTROL_START = 0;
+
+  private final WritableByteChannel channel;
+
+  private ByteBuffer output;
+  private ByteBuffer payload;
+
+  WpilogWriter(WritableByteChannel channel, String extraHeader) throws IOException {
+    this.channel = channel;
+    output = ByteBuffer.allocate(64 * 1024)
+                       .order(ByteOrder.LITTLE_ENDIAN);
+    payload = ByteBuffer.allocate(1024)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+
+    byte[] extra = extraHeader.getBytes(StandardCharsets.UTF_8);
+    output.put(MAGIC)
+          .putShort(VERSION)
+          .putInt(extra.length)
+          .put(extra);
+  }
+
+  /**
+   * Writes a start record, after which values may be appended to the entry.
+   */
+  void start(int entry, String name, String type, String metadata, long timestampMicros)
+      throws IOException {
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+    byte[] metadataBytes = metadata.getBytes(StandardCharsets.UTF_8);
+    beginPayload(17 + nameBytes.length + typeBytes.length + metadataBytes.length);
+    payload.put((byte) CONTROL_START)
+           .putInt(entry)
+           .putInt(nameBytes.length)
+           .put(nameBytes)
+           .putInt(typeBytes.length)
+           .put(typeBytes)
+           .putInt(metadataBytes.length)
+           .put(metadataBytes);
+    writeRecord(CONTROL_ENTRY, timestampMicros);
+  }
+
+  /**
+   * Clears the payload of the next record, making room for at least the given
+   * number of bytes. The payload is then written with {@link #payload()}.
+   */
+  void beginPayload(int capacity) {
+    if (payload.capacity() < capacity) {
+      payload = ByteBuffer.allocate(Math.max(capacity, payload.capacity() * 2))
+                          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    payload.clear();
+  }
+
+  ByteBuffer payload() {
+    return payload;
+  }
+
+  /**
+   * Writes a record containing the current payload.
+   */
+  void writeRecord(int entry, long timestampMicros) throws IOException {
+    payload.flip();
+    int entryBytes = byteCount(entry);
+    int sizeBytes = byteCount(payload.remaining());
+    int timestampBytes = byteCount(timestampMicros);
+    int length = 1 + entryBytes + sizeBytes + timestampBytes + payload.remaining();
+    if (output.remaining() < length) {
+      flush();
+      if (output.capacity() < length) {
+        output = ByteBuffer.allocate(length)
+                           .order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+
+    output.put((byte) ((entryBytes - 1) | (sizeBytes - 1) << 2 | (timestampBytes - 1) << 4));
+    putBytes(entry, entryBytes);
+    putBytes(payload.remaining(), sizeBytes);
+    putBytes(timestampMicros, timestampBytes);
+    output.put(payload);
+  }
+
+  private void putBytes(long value, int count) {
+    for (int i = 0; i < count; i++) {
+      output.put((byte) (value >>> (8 * i)));
+    }
+  }
+
+  private static int byteCount(long value) {
+    return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 7) / 8);
+  }
+
+  void flush() throws IOException {
+    output.flip();
+    while (output.hasRemaining()) {
+      channel.write(output);
+    }
+    output.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    channel.close();
+  }
+}
@@ -0,0 +1,97 @@
+package org.victorrobotics.dtlib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.DTLog;
+import org.victorrobotics.dtlib.log.TestLog;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayInputSourceTest {
+  /** Logs its inputs the way {@link DTRobot} does */
+  static final class Robot {
+    @DTLog(name = "driverStation", level = DTLog.Level.ERROR)
+    final DriverStationInputs inputs = new DriverStationInputs();
+
+    @DTLog
+    double speed;
+  }
+
+  static final class Arm {
+    @DTLog
+    double angle = 1;
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void robotLogsInputsAtErrorLevel() throws Exception {
+    DTLog annotation = DTRobot.class.getDeclaredField("driverStation")
+                                    .getAnnotation(DTLog.class);
+    assertEquals(DTLog.Level.ERROR, annotation.level());
+  }
+
+  @Test
+  void replaysInputsLoggedAtWarnLevel() throws Exception {
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.WARN);
+    Robot robot = new Robot();
+    log.add("Robot", robot, DTLog.Level.WARN);
+
+    int cycles = 10;
+    long[] times = new long[cycles];
+    for (int i = 0; i < cycles; i++) {
+      DriverStationInputs inputs = robot.inputs;
+      inputs.timeMicros = log.getTimeMicros() + 20_000;
+      inputs.enabled = i >= 3;
+      inputs.autonomous = i < 6;
+      inputs.alliance = 4;
+      inputs.getJoystick(0).connected = true;
+      inputs.getJoystick(0).buttons = i % 4;
+      inputs.getJoystick(0).axes = new double[] { i * 0.1, -1 };
+      times[i] = inputs.timeMicros;
+      log.cycle(20);
+    }
+
+    ReplayInputSource source = new ReplayInputSource(log.close());
+    DriverStationInputs replayed = new DriverStationInputs();
+    for (int i = 0; i < cycles; i++) {
+      assertTrue(source.refresh(replayed));
+      if (i == 0) {
+        // The robot reads inputs once more before its first cycle
+        assertTrue(source.refresh(replayed));
+      }
+      assertEquals(times[i], source.currentTimeMicros());
+      assertEquals(i >= 3, replayed.enabled);
+      assertEquals(i < 6, replayed.autonomous);
+      assertEquals(4, replayed.alliance);
+      assertTrue(replayed.isJoystickConnected(0));
+      assertEquals(i % 4, replayed.getStickButtons(0));
+      assertArrayEquals(new double[] { i * 0.1, -1 }, replayed.getJoystick(0).axes);
+    }
+    assertFalse(source.refresh(replayed));
+  }
+
+  @Test
+  void rejectsLogWithoutInputs() throws Exception {
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.INFO);
+    log.add("Robot", new Arm(), DTLog.Level.INFO);
+    for (int i = 0; i < 5; i++) {
+      log.cycle(20);
+    }
+
+    LogReader reader = log.close();
+    assertThrows(IOException.class, () -> new ReplayInputSource(reader));
+  }
+}
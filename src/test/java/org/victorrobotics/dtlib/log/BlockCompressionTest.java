@@ -0,0 +1,36 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.reader.LogHeader;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BlockCompressionTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void blockCompressionRoundTrip() throws Exception {
+    Path plainDirectory = Files.createDirectory(directory.resolve("plain"));
+    Path deflatedDirectory = Files.createDirectory(directory.resolve("deflated"));
+    List<String> expected = SensorLog.write(plainDirectory, false, 0, 0);
+    assertEquals(expected, SensorLog.write(deflatedDirectory, true, 6, 0));
+
+    LogReader reader = LogReader.open(new TestLog(deflatedDirectory).getLogFile());
+    assertTrue((reader.getHeader()
+                      .getFormatFlags()
+        & LogHeader.FORMAT_BLOCK_COMPRESSED) != 0);
+
+    long plainSize = Files.size(new TestLog(plainDirectory).getLogFile());
+    long deflatedSize = Files.size(new TestLog(deflatedDirectory).getLogFile());
+    assertTrue(deflatedSize < plainSize, deflatedSize + " >= " + plainSize);
+  }
+}
@@ -0,0 +1,42 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.LogHeader;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FloatArrayTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void floatArraysAreFourBytesPerElement() throws Exception {
+    SensorLog.write(directory, false, 0, 0);
+
+    LogReader reader = LogReader.open(new TestLog(directory).getLogFile());
+    assertTrue((reader.getHeader()
+                      .getFormatFlags()
+        & LogHeader.FORMAT_FLOAT_ARRAYS) != 0);
+    LogCursor cursor = reader.cursor();
+    int values = 0;
+    while (cursor.next()) {
+      if (cursor.getRecordType() != RecordType.VALUE || !cursor.getVariable()
+                                                               .getPath()
+                                                               .equals("/Sensors/currents")) {
+        continue;
+      }
+      assertEquals(4, cursor.getArrayLength());
+      assertEquals(2 + 4 * Float.BYTES, cursor.getValueLength());
+      values++;
+    }
+    assertEquals(SensorLog.CYCLES, values);
+  }
+}
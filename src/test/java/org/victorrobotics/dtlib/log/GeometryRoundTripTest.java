@@ -0,0 +1,100 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.geometry.Twist3d;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GeometryRoundTripTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void geometryValuesRoundTrip() throws Exception {
+    Rotation3d rotation = new Rotation3d(0.1, -0.2, 0.3);
+    Quaternion q = rotation.getQuaternion();
+    Map<String, Object> values = new HashMap<>();
+    Map<String, double[]> expected = new HashMap<>();
+    values.put("/rotation2d", new Rotation2d(0.25));
+    expected.put("/rotation2d", new double[] { 0.25 });
+    values.put("/rotation3d", rotation);
+    expected.put("/rotation3d", new double[] { q.getW(), q.getX(), q.getY(), q.getZ() });
+    values.put("/translation2d", new Translation2d(1, -2));
+    expected.put("/translation2d", new double[] { 1, -2 });
+    values.put("/translation3d", new Translation3d(1, 2, 3));
+    expected.put("/translation3d", new double[] { 1, 2, 3 });
+    values.put("/pose2d", new Pose2d(4, 5, new Rotation2d(-1)));
+    expected.put("/pose2d", new double[] { 4, 5, -1 });
+    values.put("/pose3d", new Pose3d(new Translation3d(6, 7, 8), rotation));
+    expected.put("/pose3d", new double[] { 6, 7, 8, q.getW(), q.getX(), q.getY(), q.getZ() });
+    values.put("/transform2d", new Transform2d(new Translation2d(9, 10), new Rotation2d(2)));
+    expected.put("/transform2d", new double[] { 9, 10, 2 });
+    values.put("/transform3d", new Transform3d(new Translation3d(11, 12, 13), rotation));
+    expected.put("/transform3d",
+                 new double[] { 11, 12, 13, q.getW(), q.getX(), q.getY(), q.getZ() });
+    values.put("/twist2d", new Twist2d(0.5, 0.6, 0.7));
+    expected.put("/twist2d", new double[] { 0.5, 0.6, 0.7 });
+    values.put("/twist3d", new Twist3d(1.5, 1.6, 1.7, 1.8, 1.9, 2.0));
+    expected.put("/twist3d", new double[] { 1.5, 1.6, 1.7, 1.8, 1.9, 2.0 });
+
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.DEBUG);
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      Object value = entry.getValue();
+      LogType type = LogWriter.LOG_TYPES.get(value.getClass());
+      log.add(new ObjectLogVariable(type, entry.getKey(), parent -> value));
+    }
+    // A value after the geometry must still be decoded
+    log.add(new DoubleLogVariable(LogWriter.LOG_TYPES.get(double.class).id, "/after",
+                                  parent -> 42, false));
+    for (int i = 0; i < 3; i++) {
+      log.cycle(20);
+    }
+
+    LogReader reader = log.close();
+    LogCursor cursor = reader.cursor();
+    Map<String, double[]> decoded = new HashMap<>();
+    int afterCount = 0;
+    while (cursor.next()) {
+      if (cursor.getRecordType() != RecordType.VALUE) continue;
+
+      String path = cursor.getVariable()
+                          .getPath();
+      if (path.equals("/after")) {
+        assertEquals(42, cursor.getDouble());
+        afterCount++;
+        continue;
+      }
+      double[] doubles = new double[cursor.getArrayLength()];
+      cursor.getDoubles(doubles);
+      decoded.put(path, doubles);
+    }
+
+    assertEquals(1, afterCount);
+    assertEquals(expected.keySet(), decoded.keySet());
+    for (Map.Entry<String, double[]> entry : expected.entrySet()) {
+      assertArrayEquals(entry.getValue(), decoded.get(entry.getKey()), entry.getKey());
+    }
+  }
+}
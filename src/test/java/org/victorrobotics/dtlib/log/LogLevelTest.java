@@ -0,0 +1,69 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogLevelTest {
+  static final class Robot {
+    @DTLog(level = DTLog.Level.DEBUG)
+    final Drive drive = new Drive();
+
+    @DTLog
+    double speed;
+  }
+
+  static final class Drive {
+    @DTLog
+    final Module module0 = new Module();
+
+    @DTLog
+    final Module module1 = new Module();
+
+    @DTLog
+    double heading;
+  }
+
+  static final class Module {
+    @DTLog(level = DTLog.Level.DEBUG)
+    double current;
+
+    @DTLog
+    double angle;
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void overrideBelowDisabledNode() throws Exception {
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.INFO);
+    log.add("Robot", new Robot(), DTLog.Level.INFO,
+            Map.of("/Robot/drive/module0", DTLog.Level.DEBUG));
+    log.cycle(20);
+
+    LogCursor cursor = log.close()
+                          .cursor();
+    Set<String> logged = new TreeSet<>();
+    while (cursor.next()) {
+      if (cursor.getRecordType() == RecordType.VALUE) {
+        logged.add(cursor.getVariable()
+                         .getPath());
+      }
+    }
+    // Only the way down to the override is logged inside the drive
+    assertEquals(Set.of("/Robot/speed", "/Robot/drive/module0/current",
+                        "/Robot/drive/module0/angle"),
+                 logged);
+  }
+}
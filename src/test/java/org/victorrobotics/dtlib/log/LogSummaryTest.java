@@ -0,0 +1,97 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.victorrobotics.dtlib.log.reader.LogSummary;
+import org.victorrobotics.dtlib.log.reader.SummarySeries;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogSummaryTest {
+  static final class Sensor {
+    @DTLog
+    double value;
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void summarizesOnClose() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configSummary(true);
+    LogWriter writer = log.open(DTLog.Level.INFO);
+    Sensor sensor = new Sensor();
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    for (int i = 0; i < 100; i++) {
+      sensor.value = i;
+      log.cycle(i == 0 ? 10 : 20);
+    }
+    log.close();
+    writer.awaitSummary();
+
+    // The log starts at 1000 ms, and the value is i at 1010 + 20i ms, so
+    // bucket k holds 5k-1 and 5k+4 for 10 ms each, and 5k to 5k+3 for 20 ms
+    LogSummary summary = LogSummary.open(LogSummary.getSummaryPath(log.getLogFile()));
+    SummarySeries series = summary.query("/Robot/value", 1100, 1600, 100);
+    assertEquals(100, series.getBucketMillis());
+    assertArrayEquals(new long[] { 1100, 1200, 1300, 1400, 1500 }, series.getTimestamps());
+    for (int k = 1; k <= 5; k++) {
+      assertEquals(5 * k - 1, series.getMin()[k - 1]);
+      assertEquals(5 * k + 4, series.getMax()[k - 1]);
+      assertEquals(5 * k + 1.5, series.getMean()[k - 1], 1e-9);
+      assertEquals(5, series.getCounts()[k - 1]);
+    }
+  }
+
+  @Test
+  void summarizesCheckpointCycles() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configCheckpoints(20);
+    Sensor sensor = new Sensor();
+    log.open(DTLog.Level.INFO);
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    for (int i = 0; i < 100; i++) {
+      sensor.value = i;
+      log.cycle(20);
+    }
+
+    // Every cycle's time is written as a checkpoint
+    LogSummary.build(log.close(), directory.resolve("checkpoints.dtsum"));
+    LogSummary summary = LogSummary.open(directory.resolve("checkpoints.dtsum"));
+    assertEquals(1000, summary.getStartTime());
+    assertEquals(3000, summary.getEndTime());
+    SummarySeries series = summary.query("/Robot/value", 1000, 3100, 100);
+    assertEquals(100, series.getBucketMillis());
+    int count = 0;
+    for (int i = 0; i < series.size(); i++) {
+      count += series.getCounts()[i];
+    }
+    assertEquals(100, count);
+    assertEquals(99, series.getMax()[series.size() - 1]);
+  }
+
+  @Test
+  void summaryFailureDoesNotFailClose() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configSummary(true);
+    LogWriter writer = log.open(DTLog.Level.INFO);
+    log.add("Robot", new Sensor(), DTLog.Level.INFO);
+    log.cycle(20);
+
+    // A directory in place of the temporary summary file stops it from being
+    // written
+    Path summaryFile = LogSummary.getSummaryPath(log.getLogFile());
+    Files.createDirectory(summaryFile.resolveSibling(summaryFile.getFileName() + ".tmp"));
+
+    log.close();
+    writer.awaitSummary();
+    assertFalse(Files.exists(summaryFile));
+  }
+}
@@ -0,0 +1,115 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MessageDictionaryTest {
+  private static final int LOG_MSG_INFO     = 0x09;
+  private static final int LOG_MSG_REF_INFO = 0x11;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void onlyRepeatedMessagesAreInterned() throws Exception {
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.INFO);
+    for (int i = 0; i < 3; i++) {
+      log.cycle(20);
+      LogWriter.info("repeated");
+      for (int j = 0; j < 100; j++) {
+        LogWriter.info("value " + (100 * i + j));
+      }
+    }
+
+    LogCursor cursor = log.close()
+                          .cursor();
+    List<Integer> repeatedIdentifiers = new ArrayList<>();
+    List<Integer> repeatedCounts = new ArrayList<>();
+    int oneOffCount = 0;
+    while (cursor.next()) {
+      if (cursor.getRecordType() != RecordType.MESSAGE) continue;
+
+      if (cursor.getString()
+                .equals("repeated")) {
+        repeatedIdentifiers.add(cursor.getIdentifier());
+        repeatedCounts.add(cursor.getOccurrenceCount());
+      } else {
+        assertEquals(LOG_MSG_INFO, cursor.getIdentifier(), cursor.getString());
+        assertEquals("value " + oneOffCount, cursor.getString());
+        oneOffCount++;
+      }
+    }
+
+    assertEquals(300, oneOffCount);
+    assertEquals(List.of(LOG_MSG_INFO, LOG_MSG_REF_INFO, LOG_MSG_REF_INFO), repeatedIdentifiers);
+    assertEquals(List.of(1, 2, 3), repeatedCounts);
+  }
+
+  @Test
+  void stackTraceIsPrintedOnce() throws Exception {
+    TestLog log = new TestLog(directory);
+    log.open(DTLog.Level.DEBUG);
+
+    PrintStream stdout = System.out;
+    ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(printed, true));
+    try {
+      for (int i = 0; i < 4; i++) {
+        log.cycle(20);
+        LogWriter.logException(newException(), DTLog.Level.ERROR);
+      }
+    } finally {
+      System.setOut(stdout);
+    }
+
+    String output = printed.toString();
+    String frame = "\tat " + MessageDictionaryTest.class.getName() + ".newException";
+    assertEquals(1, count(output, frame));
+    assertTrue(output.contains("IllegalStateException: broken (x2)"), output);
+    assertTrue(output.contains("IllegalStateException: broken (x4)"), output);
+
+    LogCursor cursor = log.close()
+                          .cursor();
+    List<Integer> summaryCounts = new ArrayList<>();
+    int stackTraces = 0;
+    while (cursor.next()) {
+      if (cursor.getRecordType() != RecordType.MESSAGE) continue;
+
+      if (cursor.getMessageLevel() == DTLog.Level.ERROR) {
+        assertEquals("java.lang.IllegalStateException: broken", cursor.getString());
+        summaryCounts.add(cursor.getOccurrenceCount());
+      } else {
+        assertTrue(cursor.getString()
+                         .startsWith("\tat "));
+        stackTraces++;
+      }
+    }
+    assertEquals(List.of(1, 2, 3, 4), summaryCounts);
+    assertEquals(4, stackTraces);
+  }
+
+  private static IllegalStateException newException() {
+    return new IllegalStateException("broken");
+  }
+
+  private static int count(String text, String part) {
+    int count = 0;
+    for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,202 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.reader.DoubleColumn;
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.RecordType;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentIndexTest {
+  static final class Sensor {
+    @DTLog
+    double value;
+
+    @DTLog
+    int constant = 7;
+  }
+
+  static final class SlowSensor {
+    @DTLog
+    double value;
+
+    @DTLog(periodCycles = 50)
+    double slow;
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void seeksToCheckpoints() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configCheckpoints(100);
+    log.open(DTLog.Level.INFO);
+    Sensor sensor = new Sensor();
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    for (int i = 0; i < 50; i++) {
+      sensor.value = i;
+      log.cycle(20);
+    }
+    LogReader reader = log.close();
+
+    byte[] file = Files.readAllBytes(log.getLogFile());
+    assertEquals("DTix", new String(file, file.length - 4, 4, StandardCharsets.UTF_8));
+
+    // Cycles run from 1020 ms, checkpoints every 100 ms from 1000 ms
+    LogCursor cursor = reader.seek(1510);
+    assertTrue(cursor.next());
+    assertEquals(RecordType.CHECKPOINT, cursor.getRecordType());
+    assertEquals(1500, cursor.getTimestamp());
+    assertEquals(Map.of("/Robot/value", 24.0, "/Robot/constant", 7.0), readCycle(cursor));
+  }
+
+  @Test
+  void compressedLogDecodesFromCheckpoint() throws Exception {
+    List<String> expected = SensorLog.write(directory, true, 6, 500);
+
+    LogReader reader = LogReader.open(new TestLog(directory).getLogFile());
+    // Cycles run from 1020 ms, checkpoints every 500 ms from 1000 ms
+    LogCursor cursor = reader.seek(3010);
+    assertTrue(cursor.next());
+    assertEquals(RecordType.CHECKPOINT, cursor.getRecordType());
+    assertEquals(3000, cursor.getTimestamp());
+
+    // Every variable is redeclared with its value, so the states after the
+    // checkpoint are complete
+    List<String> states = SensorLog.readStates(reader.seek(3010));
+    assertEquals(SensorLog.CYCLES - 99, states.size());
+    assertEquals(expected.subList(99, SensorLog.CYCLES), states);
+  }
+
+  @Test
+  void checkpointCarriesSlowVariables() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configCheckpoints(100);
+    log.open(DTLog.Level.INFO);
+    SlowSensor sensor = new SlowSensor();
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    for (int i = 0; i < 50; i++) {
+      sensor.value = i;
+      sensor.slow = 100 + i;
+      log.cycle(20);
+    }
+    LogReader reader = log.close();
+
+    // Not due at 1500 ms, but logged with the checkpoint
+    LogCursor cursor = reader.seek(1510);
+    assertTrue(cursor.next());
+    assertEquals(RecordType.CHECKPOINT, cursor.getRecordType());
+    assertEquals(Map.of("/Robot/value", 24.0, "/Robot/slow", 124.0), readCycle(cursor));
+  }
+
+  @Test
+  void failedRolloverContinuesSegment() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configCheckpoints(100);
+    LogWriter.configRotation(0, 200);
+    log.open(DTLog.Level.INFO);
+
+    // A directory in place of the next segment stops it from being opened
+    Path first = log.getLogFile();
+    Path blocker = first.resolveSibling(first.getFileName()
+                                             .toString()
+                                             .replace(".dtlog", "_001.dtlog"));
+    Files.createDirectory(blocker);
+
+    Sensor sensor = new Sensor();
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    for (int i = 0; i < 50; i++) {
+      if (i == 25) {
+        Files.delete(blocker);
+      }
+      sensor.value = i;
+      log.cycle(20);
+    }
+    LogReader reader = log.close();
+
+    assertTrue(reader.getSegmentCount() > 1);
+    DoubleColumn values = reader.readDoubles("/Robot/value");
+    assertEquals(50, values.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(1020 + 20 * i, values.getTimestamps()[i]);
+      assertEquals(i, values.getValues()[i]);
+    }
+
+    // Checkpoints written while the rollover was failing are still indexed
+    LogCursor cursor = reader.seek(1410);
+    assertTrue(cursor.next());
+    assertEquals(1400, cursor.getTimestamp());
+    assertEquals(0, cursor.getSegmentIndex());
+    assertEquals(Map.of("/Robot/value", 19.0, "/Robot/constant", 7.0), readCycle(cursor));
+  }
+
+  @Test
+  void failedAsyncRolloverStartsSegmentAgain() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configAsync(4, LogWriter.OverflowPolicy.BLOCK);
+    LogWriter.configRotation(0, 200);
+    LogWriter writer = log.open(DTLog.Level.INFO);
+
+    Path first = log.getLogFile();
+    Path blocker = first.resolveSibling(first.getFileName()
+                                             .toString()
+                                             .replace(".dtlog", "_001.dtlog"));
+    Files.createDirectory(blocker);
+
+    Sensor sensor = new Sensor();
+    log.add("Robot", sensor, DTLog.Level.INFO);
+    int cycles = 0;
+    while (writer.getFailedWriteCount() == 0) {
+      assertTrue(cycles < 1000);
+      sensor.value = cycles++;
+      log.cycle(20);
+      Thread.sleep(1);
+    }
+    Files.delete(blocker);
+    for (int i = 0; i < 25; i++) {
+      sensor.value = cycles++;
+      log.cycle(20);
+      Thread.sleep(1);
+    }
+    LogReader reader = log.close();
+
+    // Data logged while the switch was failing is lost, but never ends up
+    // after the first segment's index
+    assertTrue(reader.getSegmentCount() > 1);
+    DoubleColumn values = reader.readDoubles("/Robot/value");
+    int size = values.size();
+    assertTrue(size < cycles);
+    assertEquals(cycles - 1, values.getValues()[size - 1]);
+    for (int i = 1; i < size; i++) {
+      assertTrue(values.getValues()[i] > values.getValues()[i - 1]);
+    }
+  }
+
+  /**
+   * @return the values logged until the next change of time
+   */
+  private static Map<String, Double> readCycle(LogCursor cursor) {
+    Map<String, Double> values = new HashMap<>();
+    while (cursor.next() && cursor.getRecordType() != RecordType.TIMESTAMP
+        && cursor.getRecordType() != RecordType.CHECKPOINT) {
+      if (cursor.getRecordType() == RecordType.VALUE) {
+        values.put(cursor.getVariable()
+                         .getPath(),
+                   cursor.getDouble());
+      }
+    }
+    return values;
+  }
+}
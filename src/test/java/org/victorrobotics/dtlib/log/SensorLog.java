@@ -0,0 +1,169 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.victorrobotics.dtlib.log.reader.LogCursor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Logs an object whose values are awkward to encode, and reads each cycle's
+ * values back, to compare logs written with different formats.
+ */
+final class SensorLog {
+  static final int CYCLES = 200;
+
+  /** Values that are awkward to encode, and some that barely change */
+  static final class Sensors {
+    @DTLog
+    double position;
+
+    @DTLog
+    double voltage;
+
+    @DTLog
+    double[] states;
+
+    @DTLog
+    float[] currents;
+
+    @DTLog
+    int count;
+
+    @DTLog
+    String status;
+
+    void update(int cycle) {
+      position = cycle * 0.01;
+      voltage = switch (cycle % 7) {
+        case 0 -> Double.NaN;
+        case 1 -> -0.0;
+        case 2 -> Double.POSITIVE_INFINITY;
+        case 3 -> Double.MIN_VALUE;
+        default -> 12.5;
+      };
+      states = new double[cycle % 5];
+      for (int i = 0; i < states.length; i++) {
+        states[i] = i == 0 ? -cycle : Math.sqrt(cycle + i);
+      }
+      currents = new float[] { cycle / 3f, -1.5f, Float.MAX_VALUE, cycle % 2 == 0 ? 0 : Float.NaN };
+      count = cycle / 10;
+      status = cycle < CYCLES / 2 ? "auto" : "teleop " + cycle / 50;
+    }
+
+    /**
+     * @return the values as the reader describes them
+     */
+    String describe() {
+      return "count=" + count + " currents=" + Arrays.toString(currents) + " position=" + position
+          + " states=" + Arrays.toString(states) + " status=" + status + " voltage=" + voltage;
+    }
+  }
+
+  private SensorLog() {}
+
+  /**
+   * Logs the sensors for {@link #CYCLES} cycles of 20 ms.
+   *
+   * @param compressed whether to compress doubles
+   * @param level the block compression level, or 0
+   * @param checkpointMillis the checkpoint interval, or 0
+   * @return the state after each cycle, as read back
+   */
+  static List<String> write(Path directory, boolean compressed, int level,
+                                   int checkpointMillis)
+      throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configCheckpoints(checkpointMillis);
+    LogWriter.configDoubleCompression(compressed);
+    LogWriter.configBlockCompression(level);
+    log.open(DTLog.Level.DEBUG);
+
+    Sensors sensors = new Sensors();
+    log.add("Sensors", sensors, DTLog.Level.DEBUG);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < CYCLES; i++) {
+      sensors.update(i);
+      log.cycle(20);
+      expected.add(sensors.describe());
+    }
+
+    List<String> states = readStates(log.close()
+                                        .cursor());
+    assertEquals(expected, states);
+    return states;
+  }
+
+  /**
+   * Reads each cycle's values, after every variable has been declared.
+   *
+   * @return the state of the sensors at the end of each cycle
+   */
+  static List<String> readStates(LogCursor cursor) {
+    Map<String, String> values = new TreeMap<>();
+    List<String> states = new ArrayList<>();
+    boolean cycleStarted = false;
+    while (cursor.next()) {
+      switch (cursor.getRecordType()) {
+        case TIMESTAMP, CHECKPOINT -> {
+          // A checkpoint takes the place of its cycle's timestamp
+          if (cycleStarted && values.size() == 6) {
+            states.add(describe(values));
+          }
+          cycleStarted = true;
+        }
+        case VALUE -> {
+          String path = cursor.getVariable()
+                              .getPath();
+          String name = path.substring(path.lastIndexOf('/') + 1);
+          values.put(name, readValue(cursor, name));
+        }
+        default -> {
+          // Not compared
+        }
+      }
+    }
+    if (cycleStarted && values.size() == 6) {
+      states.add(describe(values));
+    }
+    return states;
+  }
+
+  private static String readValue(LogCursor cursor, String name) {
+    return switch (name) {
+      case "count" -> Long.toString(cursor.getLong());
+      case "status" -> cursor.getString();
+      case "states" -> {
+        double[] states = new double[cursor.getArrayLength()];
+        cursor.getDoubles(states);
+        yield Arrays.toString(states);
+      }
+      case "currents" -> {
+        float[] currents = new float[cursor.getArrayLength()];
+        for (int i = 0; i < currents.length; i++) {
+          currents[i] = (float) cursor.getDouble(i);
+        }
+        yield Arrays.toString(currents);
+      }
+      default -> Double.toString(cursor.getDouble());
+    };
+  }
+
+  private static String describe(Map<String, String> values) {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      if (builder.length() > 0) {
+        builder.append(' ');
+      }
+      builder.append(entry.getKey())
+             .append('=')
+             .append(entry.getValue());
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,125 @@
+package org.victorrobotics.dtlib.log;
+
+import org.victorrobotics.dtlib.log.reader.LogReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a log in a temporary directory without a robot, with a clock that
+ * only advances when told to, and reads it back. Objects are logged through
+ * the same annotated log tree as a robot's.
+ */
+public final class TestLog {
+  private static final Object PARENT = new Object();
+
+  private final Path          directory;
+  private final List<LogNode> nodes;
+
+  private long timeMicros;
+
+  /**
+   * Restores the writer's default configuration, so the test may change it
+   * before calling {@link #open(DTLog.Level)}.
+   *
+   * @param directory where to write the log
+   */
+  public TestLog(Path directory) {
+    this.directory = directory;
+    nodes = new ArrayList<>();
+    LogWriter.resetConfig();
+    LogWriter.configDirectory(directory.toFile());
+  }
+
+  public LogWriter open(DTLog.Level level) throws IOException {
+    timeMicros = 1_000_000;
+    LogWriter.initDetached(level, () -> timeMicros);
+    return LogWriter.getInstance();
+  }
+
+  /**
+   * Logs an object's annotated members every cycle, under {@code /name}.
+   *
+   * @param name the object's name in the log
+   * @param object the object
+   * @param level the least verbose level of members to log
+   */
+  public void add(String name, Object object, DTLog.Level level) {
+    add(name, object, level, Map.of());
+  }
+
+  /**
+   * Logs an object's annotated members every cycle, with levels set for
+   * specific paths.
+   */
+  void add(String name, Object object, DTLog.Level level, Map<String, DTLog.Level> overrides) {
+    LogNode node = new LogNode("", name, object.getClass(), unused -> object);
+    node.init(new ArrayDeque<>(), new LinkedHashSet<>(), new LinkedHashMap<>());
+    node.applyLevels(level, overrides);
+    nodes.add(node);
+  }
+
+  /**
+   * Logs a variable every cycle.
+   *
+   * @param variable the variable, which reads its value from any parent
+   */
+  void add(LogVariable variable) {
+    nodes.add(new LogNode(variable));
+  }
+
+  /**
+   * Ends the current cycle, advances the clock, and logs everything added.
+   *
+   * @param millis the length of the previous cycle
+   */
+  public void cycle(long millis) {
+    LogWriter writer = LogWriter.getInstance();
+    writer.tryFlush();
+    timeMicros += millis * 1000;
+    writer.logNewTimestamp();
+    for (LogNode node : nodes) {
+      node.log(PARENT);
+    }
+  }
+
+  /**
+   * @return the current time, in microseconds
+   */
+  public long getTimeMicros() {
+    return timeMicros;
+  }
+
+  /**
+   * Closes the writer, and opens the log it wrote.
+   *
+   * @return a reader of the log
+   */
+  public LogReader close() throws IOException {
+    LogWriter.getInstance()
+             .close();
+    LogWriter.resetConfig();
+    return LogReader.open(getLogFile());
+  }
+
+  /**
+   * @return the log's first segment, whose name has no segment number
+   */
+  public Path getLogFile() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName()
+                                      .toString()
+                                      .matches("LOG_[^_]*_[^_]*\\.dtlog"))
+                  .findFirst()
+                  .orElseThrow(() -> new IOException("no log in " + directory));
+    }
+  }
+}
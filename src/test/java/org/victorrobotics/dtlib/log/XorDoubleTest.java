@@ -0,0 +1,47 @@
+package org.victorrobotics.dtlib.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.reader.LogHeader;
+import org.victorrobotics.dtlib.log.reader.LogReader;
+import org.victorrobotics.dtlib.log.reader.LogVariableInfo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class XorDoubleTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void xorDoublesRoundTrip() throws Exception {
+    Path plainDirectory = Files.createDirectory(directory.resolve("plain"));
+    Path xorDirectory = Files.createDirectory(directory.resolve("xor"));
+    List<String> expected = SensorLog.write(plainDirectory, false, 0, 0);
+    assertEquals(expected, SensorLog.write(xorDirectory, true, 0, 0));
+
+    LogReader reader = LogReader.open(new TestLog(xorDirectory).getLogFile());
+    assertTrue((reader.getHeader()
+                      .getFormatFlags()
+        & LogHeader.FORMAT_XOR_DOUBLES) != 0);
+    Map<String, Integer> typeIDs = new HashMap<>();
+    for (LogVariableInfo variable : reader.getVariables()) {
+      typeIDs.put(variable.getPath(), variable.getTypeID());
+    }
+    assertEquals(XorEncoding.DOUBLE_TYPE_ID, typeIDs.get("/Sensors/position")
+                                                    .intValue());
+    assertEquals(XorEncoding.DOUBLE_ARRAY_TYPE_ID, typeIDs.get("/Sensors/states")
+                                                          .intValue());
+
+    long plainSize = Files.size(new TestLog(plainDirectory).getLogFile());
+    long xorSize = Files.size(new TestLog(xorDirectory).getLogFile());
+    assertTrue(xorSize < plainSize, xorSize + " >= " + plainSize);
+  }
+}
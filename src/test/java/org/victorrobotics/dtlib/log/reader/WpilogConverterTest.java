@@ -0,0 +1,131 @@
+package org.victorrobotics.dtlib.log.reader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.victorrobotics.dtlib.log.DTLog;
+import org.victorrobotics.dtlib.log.LogWriter;
+import org.victorrobotics.dtlib.log.TestLog;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WpilogConverterTest {
+  static final class Drive {
+    @DTLog
+    double speed;
+
+    @DTLog
+    int ticks;
+
+    @DTLog
+    boolean enabled;
+
+    @DTLog
+    String state = "idle";
+
+    @DTLog
+    double[] modules = new double[2];
+
+    @DTLog
+    float[] currents = new float[3];
+
+    @DTLog
+    Pose2d pose = new Pose2d();
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void convertsEveryValue() throws Exception {
+    TestLog log = new TestLog(directory);
+    LogWriter.configDoubleCompression(true);
+    log.open(DTLog.Level.DEBUG);
+    Drive drive = new Drive();
+    log.add("Drive", drive, DTLog.Level.DEBUG);
+
+    List<Double> speeds = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      drive.speed = i * 0.3;
+      drive.ticks = i * 1000;
+      drive.enabled = i >= 5;
+      drive.state = i < 5 ? "idle" : "driving";
+      drive.modules = new double[] { i, -i * 0.5 };
+      drive.currents = new float[] { i / 4f, 2, -1 };
+      drive.pose = new Pose2d(i, 2 * i, new Rotation2d(i * 0.1));
+      log.cycle(20);
+      speeds.add(drive.speed);
+      if (i == 7) {
+        LogWriter.warn("brownout");
+      }
+    }
+
+    Path output = directory.resolve("converted.wpilog");
+    WpilogConverter.convert(log.close(), output);
+
+    DataLogReader reader = new DataLogReader(output.toString());
+    assertTrue(reader.isValid());
+    Map<Integer, String> names = new HashMap<>();
+    Map<String, String> types = new HashMap<>();
+    Map<String, DataLogRecord> last = new HashMap<>();
+    List<Double> convertedSpeeds = new ArrayList<>();
+    List<Long> speedTimes = new ArrayList<>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        names.put(start.entry, start.name);
+        types.put(start.name, start.type);
+      } else if (!record.isControl()) {
+        String name = names.get(record.getEntry());
+        last.put(name, record);
+        if (name.equals("/Drive/speed")) {
+          convertedSpeeds.add(record.getDouble());
+          speedTimes.add(record.getTimestamp());
+        }
+      }
+    }
+
+    assertEquals("double", types.get("/Drive/speed"));
+    assertEquals("int64", types.get("/Drive/ticks"));
+    assertEquals("boolean", types.get("/Drive/enabled"));
+    assertEquals("string", types.get("/Drive/state"));
+    assertEquals("double[]", types.get("/Drive/modules"));
+    assertEquals("float[]", types.get("/Drive/currents"));
+    assertEquals("double[]", types.get("/Drive/pose"));
+    assertEquals("string", types.get("messages"));
+
+    assertEquals(speeds, convertedSpeeds);
+    // Microseconds since the first cycle
+    for (int i = 0; i < speedTimes.size(); i++) {
+      assertEquals(20_000L * i, speedTimes.get(i)
+                                          .longValue());
+    }
+    assertEquals(9000, last.get("/Drive/ticks")
+                           .getInteger());
+    assertTrue(last.get("/Drive/enabled")
+                   .getBoolean());
+    assertEquals("driving", last.get("/Drive/state")
+                                .getString());
+    assertArrayEquals(new double[] { 9, -4.5 }, last.get("/Drive/modules")
+                                                    .getDoubleArray());
+    assertArrayEquals(new float[] { 2.25f, 2, -1 }, last.get("/Drive/currents")
+                                                       .getFloatArray());
+    assertArrayEquals(new double[] { 9, 18, 0.9 }, last.get("/Drive/pose")
+                                                       .getDoubleArray());
+    assertEquals("[WARN] brownout", last.get("messages")
+                                        .getString());
+  }
+}